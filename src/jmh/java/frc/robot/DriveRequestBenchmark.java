@@ -0,0 +1,43 @@
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.ctre.phoenix6.swerve.SwerveModule.DriveRequestType;
+import com.ctre.phoenix6.swerve.SwerveRequest;
+
+/**
+ * The default teleop drive command body from RobotContainer.configureBindings,
+ * fed with a recorded sweep of joystick axes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DriveRequestBenchmark {
+    private static final double kMaxSpeed = 4.5;
+    private static final double[] kStickSweep = {0.0, 0.12, 0.37, 0.81, 1.0, -0.44, -0.93, 0.05};
+
+    private final SwerveRequest.FieldCentric m_fieldCentric = new SwerveRequest.FieldCentric()
+        .withDriveRequestType(DriveRequestType.OpenLoopVoltage);
+    private final SwerveRequest.RobotCentric m_robotCentric = new SwerveRequest.RobotCentric()
+        .withDriveRequestType(DriveRequestType.OpenLoopVoltage);
+    private int m_next = 0;
+
+    @Benchmark
+    public SwerveRequest fieldCentric() {
+        double axis = kStickSweep[m_next++ & 7];
+        return RobotContainer.driverRequest(m_fieldCentric, m_robotCentric, false, axis, -axis, axis * 0.5, kMaxSpeed);
+    }
+
+    @Benchmark
+    public SwerveRequest robotCentric() {
+        double axis = kStickSweep[m_next++ & 7];
+        return RobotContainer.driverRequest(m_fieldCentric, m_robotCentric, true, axis, -axis, axis * 0.5, kMaxSpeed);
+    }
+}
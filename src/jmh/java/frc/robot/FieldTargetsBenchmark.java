@@ -0,0 +1,81 @@
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.robot.field.FieldTargets;
+
+/**
+ * Nearest field target lookup through the grid index against a linear scan over the same
+ * targets, for robot positions spread across the field.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FieldTargetsBenchmark {
+    private static final int kQueryCount = 1024;
+
+    private FieldTargets m_targets;
+    private double[] m_targetX;
+    private double[] m_targetY;
+    private final double[] m_queryX = new double[kQueryCount];
+    private final double[] m_queryY = new double[kQueryCount];
+    private int m_next = 0;
+
+    @Setup
+    public void setup() {
+        AprilTagFieldLayout layout = AprilTagFieldLayout.loadField(AprilTagFields.kDefaultField);
+        /* The same targets the robot uses */
+        m_targets = FieldTargets.forGame(layout);
+
+        m_targetX = new double[m_targets.size()];
+        m_targetY = new double[m_targets.size()];
+        for (int i = 0; i < m_targets.size(); ++i) {
+            Pose2d pose = m_targets.get(i).pose;
+            m_targetX[i] = pose.getX();
+            m_targetY[i] = pose.getY();
+        }
+
+        /* Fixed seed so every fork queries the same positions */
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < kQueryCount; ++i) {
+            m_queryX[i] = random.nextDouble() * layout.getFieldLength();
+            m_queryY[i] = random.nextDouble() * layout.getFieldWidth();
+        }
+    }
+
+    @Benchmark
+    public int gridIndex() {
+        int i = m_next++ & (kQueryCount - 1);
+        return m_targets.nearest(m_queryX[i], m_queryY[i]);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int i = m_next++ & (kQueryCount - 1);
+        double x = m_queryX[i];
+        double y = m_queryY[i];
+        int best = -1;
+        double bestDistSq = Double.POSITIVE_INFINITY;
+        for (int t = 0; t < m_targetX.length; ++t) {
+            double dx = m_targetX[t] - x;
+            double dy = m_targetY[t] - y;
+            double distSq = dx * dx + dy * dy;
+            if (distSq < bestDistSq) {
+                bestDistSq = distSq;
+                best = t;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,69 @@
+package frc.robot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the recorded Limelight data under src/jmh/resources/fixtures for the benchmarks.
+ */
+public final class Fixtures {
+    private Fixtures() {}
+
+    /** @return A captured Limelight JSON results dump with three fiducials */
+    public static String limelightResultsJson() {
+        try (InputStream in = open("limelight_results.json")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** @return Captured botpose_orb_wpiblue arrays, one per recorded frame */
+    public static double[][] megaTag2Samples() {
+        List<double[]> samples = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(open("botpose_orb_wpiblue.csv"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                double[] sample = new double[fields.length];
+                for (int i = 0; i < fields.length; ++i) {
+                    sample[i] = Double.parseDouble(fields[i].trim());
+                }
+                samples.add(sample);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return samples.toArray(new double[0][]);
+    }
+
+    /**
+     * Extracts the raw fiducial block (7 values per tag) from a MegaTag2 sample,
+     * matching the layout of the rawfiducials entry.
+     *
+     * @param megaTag2Sample Sample from {@link #megaTag2Samples()}
+     * @return The rawfiducials array
+     */
+    public static double[] rawFiducials(double[] megaTag2Sample) {
+        double[] raw = new double[megaTag2Sample.length - 11];
+        System.arraycopy(megaTag2Sample, 11, raw, 0, raw.length);
+        return raw;
+    }
+
+    private static InputStream open(String name) {
+        InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name);
+        if (in == null) {
+            throw new IllegalStateException("Missing benchmark fixture " + name);
+        }
+        return in;
+    }
+}
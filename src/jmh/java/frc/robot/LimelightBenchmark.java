@@ -0,0 +1,69 @@
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import frc.robot.LimelightHelpers.PoseEstimate;
+import frc.robot.LimelightHelpers.RawFiducial;
+
+/**
+ * MegaTag2 pose decoding and raw fiducial reads, both on the decoded array alone
+ * and through NetworkTables as the robot code calls them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LimelightBenchmark {
+    private static final String kCamera = "limelight-bench";
+
+    private double[][] m_samples;
+    private int m_next = 0;
+    private final PoseEstimate m_sink = new PoseEstimate(16);
+
+    @Setup
+    public void setup() {
+        m_samples = Fixtures.megaTag2Samples();
+        LimelightHelpers.setLimelightNTDoubleArray(kCamera, "botpose_orb_wpiblue", m_samples[0]);
+        LimelightHelpers.setLimelightNTDoubleArray(kCamera, "rawfiducials", Fixtures.rawFiducials(m_samples[0]));
+    }
+
+    private double[] nextSample() {
+        double[] sample = m_samples[m_next];
+        m_next = (m_next + 1) % m_samples.length;
+        return sample;
+    }
+
+    @Benchmark
+    public PoseEstimate decodeAllocating() {
+        return LimelightHelpers.toPoseEstimate(nextSample(), 1_000_000L, true);
+    }
+
+    @Benchmark
+    public PoseEstimate decodeInto() {
+        LimelightHelpers.decodeBotPoseEstimateInto(nextSample(), 1_000_000L, true, m_sink);
+        return m_sink;
+    }
+
+    @Benchmark
+    public PoseEstimate getBotPoseEstimate() {
+        return LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2(kCamera);
+    }
+
+    @Benchmark
+    public PoseEstimate getBotPoseEstimateInto() {
+        LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2(kCamera, m_sink);
+        return m_sink;
+    }
+
+    @Benchmark
+    public RawFiducial[] getRawFiducials() {
+        return LimelightHelpers.getRawFiducials(kCamera);
+    }
+}
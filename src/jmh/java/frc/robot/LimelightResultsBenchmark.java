@@ -0,0 +1,66 @@
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import frc.robot.LimelightHelpers.LimelightResults;
+import frc.robot.LimelightHelpers.LimelightResultsDecoder;
+import frc.robot.LimelightHelpers.ResultsSection;
+
+/**
+ * Limelight JSON results parsing: full ObjectMapper binding against the streaming decoder,
+ * on a captured dump and through NetworkTables via getLatestResults.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LimelightResultsBenchmark {
+    private static final String kCamera = "limelight-bench";
+
+    private String m_json;
+    private final ObjectMapper m_mapper =
+        new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final LimelightResultsDecoder m_fiducialDecoder = new LimelightResultsDecoder(ResultsSection.FIDUCIAL);
+    private final LimelightResultsDecoder m_fullDecoder = new LimelightResultsDecoder(ResultsSection.values());
+
+    @Setup
+    public void setup() {
+        m_json = Fixtures.limelightResultsJson();
+        LimelightHelpers.getLimelightNTTableEntry(kCamera, "json").setString(m_json);
+    }
+
+    @Benchmark
+    public LimelightResults objectMapper() throws Exception {
+        return m_mapper.readValue(m_json, LimelightResults.class);
+    }
+
+    @Benchmark
+    public LimelightResults streamingFiducialsOnly() {
+        return m_fiducialDecoder.decode(m_json);
+    }
+
+    @Benchmark
+    public LimelightResults streamingAllSections() {
+        return m_fullDecoder.decode(m_json);
+    }
+
+    @Benchmark
+    public LimelightResults getLatestResults() {
+        return LimelightHelpers.getLatestResults(kCamera);
+    }
+
+    @Benchmark
+    public LimelightResults getLatestResultsStreaming() {
+        return LimelightHelpers.getLatestResults(kCamera, m_fiducialDecoder);
+    }
+}
@@ -0,0 +1,91 @@
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import frc.robot.util.PoseHistory;
+import frc.robot.vision.FastPoseEstimator;
+
+/**
+ * Cost of fusing one vision measurement, with WPILib's Kalman pose estimator (the same
+ * algorithm as Phoenix's, which replays the odometry recorded since the measurement) against
+ * the drivetrain's FAST backend. Both hold two seconds of 250 Hz odometry, and measurements
+ * land somewhere in the last 100 ms.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PoseEstimatorBenchmark {
+    private static final double kPeriod = 0.004;
+    private static final double[] kLatencies = {0.011, 0.023, 0.037, 0.048, 0.062, 0.071, 0.085, 0.097};
+
+    private SwerveDrivePoseEstimator m_estimator;
+    private final Matrix<N3, N1> m_visionStdDevs = VecBuilder.fill(0.3, 0.3, 9999999);
+    private final PoseHistory m_history = new PoseHistory(512);
+    private final FastPoseEstimator m_fastEstimator = new FastPoseEstimator(m_history, 0.1, 0.1, 0.1);
+    private final Pose2d m_visionPose = new Pose2d(4.1, 4.0, Rotation2d.fromDegrees(30));
+    private double m_time = 0;
+    private int m_next = 0;
+
+    @Setup
+    public void setup() {
+        SwerveDriveKinematics kinematics = new SwerveDriveKinematics(
+            new Translation2d(0.3, 0.3), new Translation2d(0.3, -0.3),
+            new Translation2d(-0.3, 0.3), new Translation2d(-0.3, -0.3)
+        );
+        SwerveModulePosition[] positions = new SwerveModulePosition[4];
+        for (int i = 0; i < 4; ++i) {
+            positions[i] = new SwerveModulePosition();
+        }
+        m_estimator = new SwerveDrivePoseEstimator(
+            kinematics, Rotation2d.kZero, positions, Pose2d.kZero,
+            VecBuilder.fill(0.1, 0.1, 0.1), VecBuilder.fill(0.9, 0.9, 0.9)
+        );
+
+        /* Drive a gentle arc so both histories hold distinct poses */
+        for (int step = 0; step < 500; ++step) {
+            m_time += kPeriod;
+            double heading = m_time * 0.3;
+            for (int i = 0; i < 4; ++i) {
+                positions[i] = new SwerveModulePosition(m_time * 1.5, Rotation2d.kZero);
+            }
+            Pose2d pose = m_estimator.updateWithTime(m_time, Rotation2d.fromRadians(heading), positions);
+            m_history.add(m_time, pose.getX(), pose.getY(), heading, 1.5, 0, 0.3);
+        }
+    }
+
+    @Benchmark
+    public Pose2d phoenixStyleEstimator() {
+        m_estimator.addVisionMeasurement(m_visionPose, m_time - kLatencies[m_next++ & 7], m_visionStdDevs);
+        return m_estimator.getEstimatedPosition();
+    }
+
+    @Benchmark
+    public double fastEstimator() {
+        m_fastEstimator.addMeasurement(
+            m_visionPose.getX(), m_visionPose.getY(), m_visionPose.getRotation().getRadians(),
+            m_time - kLatencies[m_next++ & 7], 0.3, 0.3, 9999999
+        );
+        double offset = m_fastEstimator.getOffsetX();
+        /* Keep every invocation starting from the same state */
+        m_fastEstimator.reset();
+        return offset;
+    }
+}
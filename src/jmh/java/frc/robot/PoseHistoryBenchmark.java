@@ -0,0 +1,76 @@
+package frc.robot;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.interpolation.TimeInterpolatableBuffer;
+import frc.robot.util.PoseHistory;
+
+/**
+ * Recording an odometry sample and looking up a past pose, with the drivetrain's PoseHistory
+ * against the TreeMap-backed TimeInterpolatableBuffer WPILib's pose estimators use. Both hold
+ * two seconds of 250 Hz samples, and lookups land somewhere in the last 100 ms, like a camera
+ * frame's capture time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PoseHistoryBenchmark {
+    private static final double kPeriod = 0.004;
+    private static final double[] kLatencies = {0.011, 0.023, 0.037, 0.048, 0.062, 0.071, 0.085, 0.097};
+
+    private final PoseHistory m_history = new PoseHistory(512);
+    private final PoseHistory.Sample m_sample = new PoseHistory.Sample();
+    private final TimeInterpolatableBuffer<Pose2d> m_buffer = TimeInterpolatableBuffer.createBuffer(2.0);
+    private double m_time = 0;
+    private int m_next = 0;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < 500; ++i) {
+            append();
+        }
+    }
+
+    private void append() {
+        m_time += kPeriod;
+        double x = 2.0 + m_time * 1.5;
+        double y = 4.0 - m_time * 0.5;
+        double heading = m_time * 0.8;
+        m_history.add(m_time, x, y, heading, 1.5, -0.5, 0.8);
+        m_buffer.addSample(m_time, new Pose2d(x, y, Rotation2d.fromRadians(heading)));
+    }
+
+    @Benchmark
+    public void poseHistoryAdd() {
+        m_time += kPeriod;
+        m_history.add(m_time, m_time, -m_time, m_time, 1.5, -0.5, 0.8);
+    }
+
+    @Benchmark
+    public void interpolatableBufferAdd() {
+        m_time += kPeriod;
+        m_buffer.addSample(m_time, new Pose2d(m_time, -m_time, Rotation2d.fromRadians(m_time)));
+    }
+
+    @Benchmark
+    public double poseHistorySample() {
+        m_history.sample(m_time - kLatencies[m_next++ & 7], m_sample);
+        return m_sample.x;
+    }
+
+    @Benchmark
+    public Optional<Pose2d> interpolatableBufferSample() {
+        return m_buffer.getSample(m_time - kLatencies[m_next++ & 7]);
+    }
+}
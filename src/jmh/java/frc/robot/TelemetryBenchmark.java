@@ -0,0 +1,57 @@
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ctre.phoenix6.swerve.SwerveDrivetrain.SwerveDriveState;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * One call of Telemetry.telemeterize with a representative drive state, as the
+ * odometry thread makes it at 250 Hz. This is the cost of the copy into the
+ * telemetry queue; publishing happens on the telemetry thread, and samples it
+ * cannot keep up with are dropped rather than slowing the caller.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TelemetryBenchmark {
+    private Telemetry m_telemetry;
+    private final SwerveDriveState m_state = new SwerveDriveState();
+
+    @Setup
+    public void setup() {
+        m_telemetry = new Telemetry(4.5);
+
+        m_state.Pose = new Pose2d(4.14, 4.05, Rotation2d.fromDegrees(178.4));
+        m_state.Speeds = new ChassisSpeeds(1.2, -0.4, 0.8);
+        m_state.ModuleStates = new SwerveModuleState[4];
+        m_state.ModuleTargets = new SwerveModuleState[4];
+        m_state.ModulePositions = new SwerveModulePosition[4];
+        for (int i = 0; i < 4; ++i) {
+            m_state.ModuleStates[i] = new SwerveModuleState(1.3, Rotation2d.fromDegrees(20 + i));
+            m_state.ModuleTargets[i] = new SwerveModuleState(1.35, Rotation2d.fromDegrees(21 + i));
+            m_state.ModulePositions[i] = new SwerveModulePosition(12.5 + i, Rotation2d.fromDegrees(20 + i));
+        }
+        m_state.Timestamp = 12.345;
+        m_state.OdometryPeriod = 0.004;
+    }
+
+    @Benchmark
+    public void telemeterize() {
+        m_state.Timestamp += 0.004;
+        m_telemetry.telemeterize(m_state);
+    }
+}
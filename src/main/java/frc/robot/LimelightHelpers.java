@@ -3,12 +3,14 @@
 package frc.robot;
 
 import edu.wpi.first.networktables.DoubleArrayEntry;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.networktables.TimestampedDoubleArray;
 import frc.robot.LimelightHelpers.LimelightResults;
 import frc.robot.LimelightHelpers.PoseEstimate;
+import frc.robot.vision.LimelightHttpClient;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -18,15 +20,21 @@ import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Translation2d;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonFormat.Shape;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -542,6 +550,14 @@ public class LimelightHelpers {
         public RawFiducial[] rawFiducials; 
         public boolean isMegaTag2;
 
+        /* Primitive copy of the pose; the only pose fields the *Into decoders write (they set pose to null) */
+        public double poseX;
+        public double poseY;
+        public double poseYawRadians;
+
+        /** Number of populated entries at the front of rawFiducials */
+        public int rawFiducialCount;
+
         /**
          * Instantiates a PoseEstimate object with default values
          */
@@ -557,6 +573,23 @@ public class LimelightHelpers {
             this.isMegaTag2 = false;
         }
 
+        /**
+         * Instantiates a reusable PoseEstimate for the getBotPoseEstimateInto decoders,
+         * with preallocated slots for up to fiducialCapacity raw fiducials.
+         * The pose field is null on these estimates so a stale pose can never be read by mistake;
+         * read poseX, poseY and poseYawRadians, or call toPose2d(), instead.
+         * 
+         * @param fiducialCapacity Maximum number of raw fiducials decoded per estimate
+         */
+        public PoseEstimate(int fiducialCapacity) {
+            this();
+            this.pose = null;
+            this.rawFiducials = new RawFiducial[fiducialCapacity];
+            for (int i = 0; i < fiducialCapacity; i++) {
+                this.rawFiducials[i] = new RawFiducial(0, 0, 0, 0, 0, 0, 0);
+            }
+        }
+
         public PoseEstimate(Pose2d pose, double timestampSeconds, double latency, 
             int tagCount, double tagSpan, double avgTagDist, 
             double avgTagArea, RawFiducial[] rawFiducials, boolean isMegaTag2) {
@@ -570,6 +603,18 @@ public class LimelightHelpers {
             this.avgTagArea = avgTagArea;
             this.rawFiducials = rawFiducials;
             this.isMegaTag2 = isMegaTag2;
+            this.poseX = pose.getX();
+            this.poseY = pose.getY();
+            this.poseYawRadians = pose.getRotation().getRadians();
+            this.rawFiducialCount = rawFiducials.length;
+        }
+
+        /**
+         * Builds a Pose2d from the primitive pose fields. Allocates, so prefer the fields in hot loops.
+         * @return The estimated robot pose
+         */
+        public Pose2d toPose2d() {
+            return new Pose2d(poseX, poseY, new Rotation2d(poseYawRadians));
         }
 
     }
@@ -673,9 +718,18 @@ public class LimelightHelpers {
         DoubleArrayEntry poseEntry = LimelightHelpers.getLimelightDoubleArrayEntry(limelightName, entryName);
         
         TimestampedDoubleArray tsValue = poseEntry.getAtomic();
-        double[] poseArray = tsValue.value;
-        long timestamp = tsValue.timestamp;
-        
+        return toPoseEstimate(tsValue.value, tsValue.timestamp, isMegaTag2);
+    }
+
+    /**
+     * Decodes a raw botpose array (as published to NetworkTables) into a PoseEstimate.
+     * 
+     * @param poseArray The botpose array: pose, latency, tag stats, then 7 values per fiducial
+     * @param timestamp The NetworkTables timestamp of the array in microseconds
+     * @param isMegaTag2 Whether the array came from a MegaTag2 (botpose_orb) entry
+     * @return The decoded PoseEstimate, or null if the array is empty
+     */
+    public static PoseEstimate toPoseEstimate(double[] poseArray, long timestamp, boolean isMegaTag2) {
         if (poseArray.length == 0) {
             // Handle the case where no data is available
             return null; // or some default PoseEstimate
@@ -714,6 +768,118 @@ public class LimelightHelpers {
         return new PoseEstimate(pose, adjustedTimestamp, latency, tagCount, tagSpan, tagDist, tagArea, rawFiducials, isMegaTag2);
     }
 
+    /**
+     * Reads a botpose entry and decodes it in place into a reusable PoseEstimate.
+     * Unlike getBotPoseEstimate, no Pose2d, PoseEstimate or RawFiducial objects are allocated.
+     * 
+     * @param limelightName Name/identifier of the Limelight
+     * @param entryName Botpose entry to read, e.g. "botpose_orb_wpiblue"
+     * @param sink Estimate to overwrite, typically created with {@link PoseEstimate#PoseEstimate(int)}
+     * @return True if the entry held data and the sink was updated
+     */
+    public static boolean getBotPoseEstimateInto(String limelightName, String entryName, PoseEstimate sink) {
+        return getBotPoseSubscriber(limelightName, entryName).decodeInto(sink);
+    }
+
+    /*
+     * Subscribers for getBotPoseEstimateInto, by camera then entry, so a lookup hashes two
+     * existing strings instead of building a key. TimestampedDoubleArray is immutable, so each
+     * one keeps the last array it read and its change time instead, and only asks NetworkTables
+     * for a new array when the entry has changed.
+     */
+    private static final Map<String, Map<String, BotPoseSubscriber>> botPoseSubscribers = new ConcurrentHashMap<>();
+
+    private static final class BotPoseSubscriber {
+        private final DoubleArraySubscriber subscriber;
+        private final boolean isMegaTag2;
+        private long lastChange = -1;
+        private double[] value = new double[0];
+
+        BotPoseSubscriber(String limelightName, String entryName) {
+            subscriber = getLimelightNTTable(limelightName).getDoubleArrayTopic(entryName).subscribe(new double[0]);
+            isMegaTag2 = entryName.startsWith("botpose_orb");
+        }
+
+        synchronized boolean decodeInto(PoseEstimate sink) {
+            long change = subscriber.getLastChange();
+            if (change != lastChange) {
+                value = subscriber.get();
+                lastChange = change;
+            }
+            return decodeBotPoseEstimateInto(value, lastChange, isMegaTag2, sink);
+        }
+    }
+
+    private static BotPoseSubscriber getBotPoseSubscriber(String limelightName, String entryName) {
+        Map<String, BotPoseSubscriber> entries = botPoseSubscribers.get(limelightName);
+        if (entries == null) {
+            entries = botPoseSubscribers.computeIfAbsent(limelightName, name -> new ConcurrentHashMap<>());
+        }
+        BotPoseSubscriber subscriber = entries.get(entryName);
+        if (subscriber == null) {
+            subscriber = entries.computeIfAbsent(entryName, entry -> new BotPoseSubscriber(limelightName, entry));
+        }
+        return subscriber;
+    }
+
+    /**
+     * Decodes a raw botpose array in place into a reusable PoseEstimate.
+     * Only the primitive pose fields (poseX, poseY, poseYawRadians) are written; the pose field is set to null.
+     * Fiducials beyond the capacity of sink.rawFiducials are dropped.
+     * 
+     * @param poseArray The botpose array: pose, latency, tag stats, then 7 values per fiducial
+     * @param timestamp The NetworkTables timestamp of the array in microseconds
+     * @param isMegaTag2 Whether the array came from a MegaTag2 (botpose_orb) entry
+     * @param sink Estimate to overwrite
+     * @return True if the array held data and the sink was updated
+     */
+    public static boolean decodeBotPoseEstimateInto(double[] poseArray, long timestamp, boolean isMegaTag2, PoseEstimate sink) {
+        sink.pose = null;
+        if (poseArray.length == 0) {
+            sink.tagCount = 0;
+            sink.rawFiducialCount = 0;
+            return false;
+        }
+
+        if (poseArray.length < 6) {
+            sink.poseX = 0;
+            sink.poseY = 0;
+            sink.poseYawRadians = 0;
+        } else {
+            sink.poseX = poseArray[0];
+            sink.poseY = poseArray[1];
+            sink.poseYawRadians = Units.degreesToRadians(poseArray[5]);
+        }
+        sink.latency = extractArrayEntry(poseArray, 6);
+        sink.tagCount = (int)extractArrayEntry(poseArray, 7);
+        sink.tagSpan = extractArrayEntry(poseArray, 8);
+        sink.avgTagDist = extractArrayEntry(poseArray, 9);
+        sink.avgTagArea = extractArrayEntry(poseArray, 10);
+        sink.isMegaTag2 = isMegaTag2;
+
+        // Convert server timestamp from microseconds to seconds and adjust for latency
+        sink.timestampSeconds = (timestamp / 1000000.0) - (sink.latency / 1000.0);
+
+        int valsPerFiducial = 7;
+        int populated = 0;
+        if (poseArray.length == 11 + valsPerFiducial * sink.tagCount) {
+            populated = Math.min(sink.tagCount, sink.rawFiducials.length);
+            for (int i = 0; i < populated; i++) {
+                int baseIndex = 11 + (i * valsPerFiducial);
+                RawFiducial fiducial = sink.rawFiducials[i];
+                fiducial.id = (int)poseArray[baseIndex];
+                fiducial.txnc = poseArray[baseIndex + 1];
+                fiducial.tync = poseArray[baseIndex + 2];
+                fiducial.ta = poseArray[baseIndex + 3];
+                fiducial.distToCamera = poseArray[baseIndex + 4];
+                fiducial.distToRobot = poseArray[baseIndex + 5];
+                fiducial.ambiguity = poseArray[baseIndex + 6];
+            }
+        }
+        sink.rawFiducialCount = populated;
+        return true;
+    }
+
     /**
      * Gets the latest raw fiducial/AprilTag detection results from NetworkTables.
      * 
@@ -1250,6 +1416,18 @@ public class LimelightHelpers {
         return getBotPoseEstimate(limelightName, "botpose_orb_wpiblue", true);
     }
 
+    /**
+     * Decodes the MegaTag2 estimate in the WPILib Blue alliance coordinate system into a reusable PoseEstimate.
+     * Make sure you are calling setRobotOrientation() before calling this method.
+     * 
+     * @param limelightName
+     * @param sink Estimate to overwrite
+     * @return True if the sink was updated
+     */
+    public static boolean getBotPoseEstimate_wpiBlue_MegaTag2(String limelightName, PoseEstimate sink) {
+        return getBotPoseEstimateInto(limelightName, "botpose_orb_wpiblue", sink);
+    }
+
     /**
      * Gets the Pose2d for easy use with Odometry vision pose estimator
      * (addVisionMeasurement)
@@ -1529,33 +1707,11 @@ public class LimelightHelpers {
     /////
 
     /**
-     * Asynchronously take snapshot.
+     * Asynchronously take snapshot. Runs on the Limelight HTTP client's own threads; see
+     * {@link LimelightHttpClient}.
      */
     public static CompletableFuture<Boolean> takeSnapshot(String tableName, String snapshotName) {
-        return CompletableFuture.supplyAsync(() -> {
-            return SYNCH_TAKESNAPSHOT(tableName, snapshotName);
-        });
-    }
-
-    private static boolean SYNCH_TAKESNAPSHOT(String tableName, String snapshotName) {
-        URL url = getLimelightURLString(tableName, "capturesnapshot");
-        try {
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            if (snapshotName != null && snapshotName != "") {
-                connection.setRequestProperty("snapname", snapshotName);
-            }
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode == 200) {
-                return true;
-            } else {
-                System.err.println("Bad LL Request");
-            }
-        } catch (IOException e) {
-            System.err.println(e.getMessage());
-        }
-        return false;
+        return LimelightHttpClient.forLimelight(sanitizeName(tableName)).takeSnapshot(snapshotName);
     }
 
     /**
@@ -1586,4 +1742,529 @@ public class LimelightHelpers {
 
         return results;
     }
+
+    /**
+     * Gets the latest JSON results output using a reusable streaming decoder.
+     * Only the sections the decoder was created for are materialized, and the returned
+     * LimelightResults (including its target objects) is reused by the next call with the same decoder.
+     * @param limelightName Name of the Limelight camera
+     * @param decoder Decoder to parse with, e.g. new LimelightResultsDecoder(ResultsSection.FIDUCIAL)
+     * @return LimelightResults object containing the requested target data
+     */
+    public static LimelightResults getLatestResults(String limelightName, LimelightResultsDecoder decoder) {
+
+        long start = System.nanoTime();
+        LimelightResults results = decoder.decode(getJSONDump(limelightName));
+
+        long end = System.nanoTime();
+        double millis = (end - start) * .000001;
+        results.latency_jsonParse = millis;
+        if (profileJSON) {
+            System.out.printf("lljson: %.2f\r\n", millis);
+        }
+
+        return results;
+    }
+
+    /**
+     * Target sections of the Limelight JSON output that a LimelightResultsDecoder can materialize.
+     */
+    public enum ResultsSection {
+        RETRO,
+        FIDUCIAL,
+        DETECTOR,
+        CLASSIFIER,
+        BARCODE
+    }
+
+    /**
+     * Streaming decoder for Limelight JSON results.
+     * <p>
+     * Walks the JSON with a Jackson JsonParser instead of binding the whole object graph,
+     * skips target sections the caller did not ask for, and writes into a single
+     * LimelightResults whose arrays and target objects are reused between calls.
+     * Every reused object is reset to its constructor defaults before it is filled, so a field
+     * missing from one dump never keeps its value from an earlier one.
+     * Top-level pose and timing fields are always decoded. A decoder is not thread-safe.
+     */
+    public static class LimelightResultsDecoder {
+        private static final JsonFactory jsonFactory = new JsonFactory();
+
+        private final boolean decodeRetro;
+        private final boolean decodeFiducials;
+        private final boolean decodeDetector;
+        private final boolean decodeClassifier;
+        private final boolean decodeBarcode;
+
+        private final LimelightResults results = new LimelightResults();
+        private final TargetPool<LimelightTarget_Retro> retroPool =
+            new TargetPool<>(LimelightTarget_Retro::new, LimelightTarget_Retro[]::new);
+        private final TargetPool<LimelightTarget_Fiducial> fiducialPool =
+            new TargetPool<>(LimelightTarget_Fiducial::new, LimelightTarget_Fiducial[]::new);
+        private final TargetPool<LimelightTarget_Detector> detectorPool =
+            new TargetPool<>(LimelightTarget_Detector::new, LimelightTarget_Detector[]::new);
+        private final TargetPool<LimelightTarget_Classifier> classifierPool =
+            new TargetPool<>(LimelightTarget_Classifier::new, LimelightTarget_Classifier[]::new);
+        private final TargetPool<LimelightTarget_Barcode> barcodePool =
+            new TargetPool<>(LimelightTarget_Barcode::new, LimelightTarget_Barcode[]::new);
+
+        private static final double[][] emptyCorners = new double[0][];
+
+        private double[] scratch = new double[16];
+        private double[][] cornerScratch = new double[4][];
+
+        /**
+         * Creates a decoder that materializes only the given target sections.
+         * @param sections Target sections to decode; all others are skipped
+         */
+        public LimelightResultsDecoder(ResultsSection... sections) {
+            boolean retro = false, fiducials = false, detector = false, classifier = false, barcode = false;
+            for (ResultsSection section : sections) {
+                switch (section) {
+                    case RETRO: retro = true; break;
+                    case FIDUCIAL: fiducials = true; break;
+                    case DETECTOR: detector = true; break;
+                    case CLASSIFIER: classifier = true; break;
+                    case BARCODE: barcode = true; break;
+                }
+            }
+            decodeRetro = retro;
+            decodeFiducials = fiducials;
+            decodeDetector = detector;
+            decodeClassifier = classifier;
+            decodeBarcode = barcode;
+        }
+
+        /**
+         * Decodes a JSON dump into the reused results object.
+         * @param json Limelight JSON output
+         * @return The reused LimelightResults, with error set if the JSON could not be parsed
+         */
+        public LimelightResults decode(String json) {
+            resetResults();
+            int retroCount = 0;
+            int fiducialCount = 0;
+            int detectorCount = 0;
+            int classifierCount = 0;
+            int barcodeCount = 0;
+
+            try (JsonParser parser = jsonFactory.createParser(json)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("expected a JSON object");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "pID": results.pipelineID = parser.getValueAsDouble(); break;
+                        case "tl": results.latency_pipeline = parser.getValueAsDouble(); break;
+                        case "cl": results.latency_capture = parser.getValueAsDouble(); break;
+                        case "ts": results.timestamp_LIMELIGHT_publish = parser.getValueAsDouble(); break;
+                        case "ts_rio": results.timestamp_RIOFPGA_capture = parser.getValueAsDouble(); break;
+                        case "v": results.valid = parser.getValueAsDouble() != 0; break;
+                        case "botpose": results.botpose = readDoubles(parser, results.botpose); break;
+                        case "botpose_wpired": results.botpose_wpired = readDoubles(parser, results.botpose_wpired); break;
+                        case "botpose_wpiblue": results.botpose_wpiblue = readDoubles(parser, results.botpose_wpiblue); break;
+                        case "botpose_tagcount": results.botpose_tagcount = parser.getValueAsDouble(); break;
+                        case "botpose_span": results.botpose_span = parser.getValueAsDouble(); break;
+                        case "botpose_avgdist": results.botpose_avgdist = parser.getValueAsDouble(); break;
+                        case "botpose_avgarea": results.botpose_avgarea = parser.getValueAsDouble(); break;
+                        case "t6c_rs": results.camerapose_robotspace = readDoubles(parser, results.camerapose_robotspace); break;
+                        case "Retro":
+                            if (decodeRetro) { retroCount = readRetroTargets(parser); } else { parser.skipChildren(); }
+                            break;
+                        case "Fiducial":
+                            if (decodeFiducials) { fiducialCount = readFiducialTargets(parser); } else { parser.skipChildren(); }
+                            break;
+                        case "Detector":
+                            if (decodeDetector) { detectorCount = readDetectorTargets(parser); } else { parser.skipChildren(); }
+                            break;
+                        case "Classifier":
+                            if (decodeClassifier) { classifierCount = readClassifierTargets(parser); } else { parser.skipChildren(); }
+                            break;
+                        case "Barcode":
+                            if (decodeBarcode) { barcodeCount = readBarcodeTargets(parser); } else { parser.skipChildren(); }
+                            break;
+                        default:
+                            parser.skipChildren();
+                            break;
+                    }
+                }
+            } catch (IOException e) {
+                results.error = "lljson error: " + e.getMessage();
+            }
+
+            results.targets_Retro = retroPool.view(retroCount);
+            results.targets_Fiducials = fiducialPool.view(fiducialCount);
+            results.targets_Detector = detectorPool.view(detectorCount);
+            results.targets_Classifier = classifierPool.view(classifierCount);
+            results.targets_Barcode = barcodePool.view(barcodeCount);
+            return results;
+        }
+
+        private int readRetroTargets(JsonParser parser) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return 0;
+            }
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                LimelightTarget_Retro target = retroPool.get(count++);
+                target.cameraPose_TargetSpace = zeroPose(target.cameraPose_TargetSpace);
+                target.robotPose_FieldSpace = zeroPose(target.robotPose_FieldSpace);
+                target.robotPose_TargetSpace = zeroPose(target.robotPose_TargetSpace);
+                target.targetPose_CameraSpace = zeroPose(target.targetPose_CameraSpace);
+                target.targetPose_RobotSpace = zeroPose(target.targetPose_RobotSpace);
+                target.ta = 0;
+                target.tx = 0;
+                target.ty = 0;
+                target.tx_pixels = 0;
+                target.ty_pixels = 0;
+                target.tx_nocrosshair = 0;
+                target.ty_nocrosshair = 0;
+                target.ts = 0;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "t6c_ts": target.cameraPose_TargetSpace = readDoubles(parser, target.cameraPose_TargetSpace); break;
+                        case "t6r_fs": target.robotPose_FieldSpace = readDoubles(parser, target.robotPose_FieldSpace); break;
+                        case "t6r_ts": target.robotPose_TargetSpace = readDoubles(parser, target.robotPose_TargetSpace); break;
+                        case "t6t_cs": target.targetPose_CameraSpace = readDoubles(parser, target.targetPose_CameraSpace); break;
+                        case "t6t_rs": target.targetPose_RobotSpace = readDoubles(parser, target.targetPose_RobotSpace); break;
+                        case "ta": target.ta = parser.getValueAsDouble(); break;
+                        case "tx": target.tx = parser.getValueAsDouble(); break;
+                        case "ty": target.ty = parser.getValueAsDouble(); break;
+                        case "txp": target.tx_pixels = parser.getValueAsDouble(); break;
+                        case "typ": target.ty_pixels = parser.getValueAsDouble(); break;
+                        case "tx_nocross": target.tx_nocrosshair = parser.getValueAsDouble(); break;
+                        case "ty_nocross": target.ty_nocrosshair = parser.getValueAsDouble(); break;
+                        case "ts": target.ts = parser.getValueAsDouble(); break;
+                        default: parser.skipChildren(); break;
+                    }
+                }
+            }
+            return count;
+        }
+
+        private int readFiducialTargets(JsonParser parser) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return 0;
+            }
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                LimelightTarget_Fiducial target = fiducialPool.get(count++);
+                target.fiducialID = 0;
+                target.cameraPose_TargetSpace = zeroPose(target.cameraPose_TargetSpace);
+                target.robotPose_FieldSpace = zeroPose(target.robotPose_FieldSpace);
+                target.robotPose_TargetSpace = zeroPose(target.robotPose_TargetSpace);
+                target.targetPose_CameraSpace = zeroPose(target.targetPose_CameraSpace);
+                target.targetPose_RobotSpace = zeroPose(target.targetPose_RobotSpace);
+                target.ta = 0;
+                target.tx = 0;
+                target.ty = 0;
+                target.tx_pixels = 0;
+                target.ty_pixels = 0;
+                target.tx_nocrosshair = 0;
+                target.ty_nocrosshair = 0;
+                target.ts = 0;
+                /* Strings are cleared only if absent, so an unchanged one can be reused below */
+                boolean sawFamily = false;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "fID": target.fiducialID = parser.getValueAsDouble(); break;
+                        case "fam": target.fiducialFamily = readString(parser, target.fiducialFamily); sawFamily = true; break;
+                        case "t6c_ts": target.cameraPose_TargetSpace = readDoubles(parser, target.cameraPose_TargetSpace); break;
+                        case "t6r_fs": target.robotPose_FieldSpace = readDoubles(parser, target.robotPose_FieldSpace); break;
+                        case "t6r_ts": target.robotPose_TargetSpace = readDoubles(parser, target.robotPose_TargetSpace); break;
+                        case "t6t_cs": target.targetPose_CameraSpace = readDoubles(parser, target.targetPose_CameraSpace); break;
+                        case "t6t_rs": target.targetPose_RobotSpace = readDoubles(parser, target.targetPose_RobotSpace); break;
+                        case "ta": target.ta = parser.getValueAsDouble(); break;
+                        case "tx": target.tx = parser.getValueAsDouble(); break;
+                        case "ty": target.ty = parser.getValueAsDouble(); break;
+                        case "txp": target.tx_pixels = parser.getValueAsDouble(); break;
+                        case "typ": target.ty_pixels = parser.getValueAsDouble(); break;
+                        case "tx_nocross": target.tx_nocrosshair = parser.getValueAsDouble(); break;
+                        case "ty_nocross": target.ty_nocrosshair = parser.getValueAsDouble(); break;
+                        case "ts": target.ts = parser.getValueAsDouble(); break;
+                        default: parser.skipChildren(); break;
+                    }
+                }
+                if (!sawFamily) {
+                    target.fiducialFamily = null;
+                }
+            }
+            return count;
+        }
+
+        private int readDetectorTargets(JsonParser parser) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return 0;
+            }
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                LimelightTarget_Detector target = detectorPool.get(count++);
+                target.classID = 0;
+                target.confidence = 0;
+                target.ta = 0;
+                target.tx = 0;
+                target.ty = 0;
+                target.tx_pixels = 0;
+                target.ty_pixels = 0;
+                target.tx_nocrosshair = 0;
+                target.ty_nocrosshair = 0;
+                boolean sawClass = false;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "class": target.className = readString(parser, target.className); sawClass = true; break;
+                        case "classID": target.classID = parser.getValueAsDouble(); break;
+                        case "conf": target.confidence = parser.getValueAsDouble(); break;
+                        case "ta": target.ta = parser.getValueAsDouble(); break;
+                        case "tx": target.tx = parser.getValueAsDouble(); break;
+                        case "ty": target.ty = parser.getValueAsDouble(); break;
+                        case "txp": target.tx_pixels = parser.getValueAsDouble(); break;
+                        case "typ": target.ty_pixels = parser.getValueAsDouble(); break;
+                        case "tx_nocross": target.tx_nocrosshair = parser.getValueAsDouble(); break;
+                        case "ty_nocross": target.ty_nocrosshair = parser.getValueAsDouble(); break;
+                        default: parser.skipChildren(); break;
+                    }
+                }
+                if (!sawClass) {
+                    target.className = null;
+                }
+            }
+            return count;
+        }
+
+        private int readClassifierTargets(JsonParser parser) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return 0;
+            }
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                LimelightTarget_Classifier target = classifierPool.get(count++);
+                target.classID = 0;
+                target.confidence = 0;
+                target.zone = 0;
+                target.tx = 0;
+                target.tx_pixels = 0;
+                target.ty = 0;
+                target.ty_pixels = 0;
+                boolean sawClass = false;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "class": target.className = readString(parser, target.className); sawClass = true; break;
+                        case "classID": target.classID = parser.getValueAsDouble(); break;
+                        case "conf": target.confidence = parser.getValueAsDouble(); break;
+                        case "zone": target.zone = parser.getValueAsDouble(); break;
+                        case "tx": target.tx = parser.getValueAsDouble(); break;
+                        case "txp": target.tx_pixels = parser.getValueAsDouble(); break;
+                        case "ty": target.ty = parser.getValueAsDouble(); break;
+                        case "typ": target.ty_pixels = parser.getValueAsDouble(); break;
+                        default: parser.skipChildren(); break;
+                    }
+                }
+                if (!sawClass) {
+                    target.className = null;
+                }
+            }
+            return count;
+        }
+
+        private int readBarcodeTargets(JsonParser parser) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return 0;
+            }
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                LimelightTarget_Barcode target = barcodePool.get(count++);
+                target.tx_pixels = 0;
+                target.ty_pixels = 0;
+                target.tx = 0;
+                target.ty = 0;
+                target.tx_nocrosshair = 0;
+                target.ty_nocrosshair = 0;
+                target.ta = 0;
+                boolean sawFamily = false;
+                boolean sawData = false;
+                boolean sawCorners = false;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "fam": target.family = readString(parser, target.family); sawFamily = true; break;
+                        case "data": target.data = readString(parser, target.data); sawData = true; break;
+                        case "txp": target.tx_pixels = parser.getValueAsDouble(); break;
+                        case "typ": target.ty_pixels = parser.getValueAsDouble(); break;
+                        case "tx": target.tx = parser.getValueAsDouble(); break;
+                        case "ty": target.ty = parser.getValueAsDouble(); break;
+                        case "tx_nocross": target.tx_nocrosshair = parser.getValueAsDouble(); break;
+                        case "ty_nocross": target.ty_nocrosshair = parser.getValueAsDouble(); break;
+                        case "ta": target.ta = parser.getValueAsDouble(); break;
+                        case "pts": target.corners = readCorners(parser, target.corners); sawCorners = true; break;
+                        default: parser.skipChildren(); break;
+                    }
+                }
+                if (!sawFamily) {
+                    target.family = null;
+                }
+                if (!sawData) {
+                    target.data = null;
+                }
+                if (!sawCorners) {
+                    target.corners = null;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Puts the reused top-level results back to their constructor defaults.
+         */
+        private void resetResults() {
+            results.error = null;
+            results.pipelineID = 0;
+            results.latency_pipeline = 0;
+            results.latency_capture = 0;
+            results.latency_jsonParse = 0;
+            results.timestamp_LIMELIGHT_publish = 0;
+            results.timestamp_RIOFPGA_capture = 0;
+            results.valid = false;
+            results.botpose = zeroPose(results.botpose);
+            results.botpose_wpired = zeroPose(results.botpose_wpired);
+            results.botpose_wpiblue = zeroPose(results.botpose_wpiblue);
+            results.botpose_tagcount = 0;
+            results.botpose_span = 0;
+            results.botpose_avgdist = 0;
+            results.botpose_avgarea = 0;
+            results.camerapose_robotspace = zeroPose(results.camerapose_robotspace);
+        }
+
+        /**
+         * Returns a zeroed 6-element pose array, reusing pose when it already has that length.
+         */
+        private static double[] zeroPose(double[] pose) {
+            if (pose == null || pose.length != 6) {
+                return new double[6];
+            }
+            Arrays.fill(pose, 0);
+            return pose;
+        }
+
+        /**
+         * Reads the numeric array at the current token, reusing dst when the length matches.
+         */
+        private double[] readDoubles(JsonParser parser, double[] dst) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return dst;
+            }
+            int count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (count == scratch.length) {
+                    scratch = Arrays.copyOf(scratch, count * 2);
+                }
+                scratch[count++] = parser.getValueAsDouble();
+            }
+            if (dst == null || dst.length != count) {
+                dst = new double[count];
+            }
+            System.arraycopy(scratch, 0, dst, 0, count);
+            return dst;
+        }
+
+        /**
+         * Reads the string at the current token, returning previous if the text has not changed.
+         */
+        private static String readString(JsonParser parser, String previous) throws IOException {
+            if (parser.currentToken() != JsonToken.VALUE_STRING) {
+                parser.skipChildren();
+                return null;
+            }
+            char[] chars = parser.getTextCharacters();
+            int offset = parser.getTextOffset();
+            int length = parser.getTextLength();
+            if (previous != null && previous.length() == length) {
+                boolean same = true;
+                for (int i = 0; i < length && same; i++) {
+                    same = previous.charAt(i) == chars[offset + i];
+                }
+                if (same) {
+                    return previous;
+                }
+            }
+            return new String(chars, offset, length);
+        }
+
+        /**
+         * Reads the array of corner points at the current token, reusing previous and its rows
+         * when the corner count and point lengths match.
+         */
+        private double[][] readCorners(JsonParser parser, double[][] previous) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return emptyCorners;
+            }
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_ARRAY) {
+                if (count == cornerScratch.length) {
+                    cornerScratch = Arrays.copyOf(cornerScratch, count * 2);
+                }
+                double[] row = previous != null && count < previous.length ? previous[count] : null;
+                cornerScratch[count++] = readDoubles(parser, row);
+            }
+            double[][] corners = previous != null && previous.length == count ? previous : new double[count][];
+            System.arraycopy(cornerScratch, 0, corners, 0, count);
+            Arrays.fill(cornerScratch, 0, count, null);
+            return corners;
+        }
+    }
+
+    /**
+     * Grow-only pool of target objects, plus one cached array per target count so that
+     * results arrays can be handed out without allocating once a count has been seen.
+     */
+    private static final class TargetPool<T> {
+        private final Supplier<T> factory;
+        private final IntFunction<T[]> arrayFactory;
+        private final ArrayList<T> elements = new ArrayList<>();
+        private final ArrayList<T[]> viewsByCount = new ArrayList<>();
+
+        TargetPool(Supplier<T> factory, IntFunction<T[]> arrayFactory) {
+            this.factory = factory;
+            this.arrayFactory = arrayFactory;
+        }
+
+        T get(int index) {
+            while (elements.size() <= index) {
+                elements.add(factory.get());
+            }
+            return elements.get(index);
+        }
+
+        T[] view(int count) {
+            while (viewsByCount.size() <= count) {
+                viewsByCount.add(null);
+            }
+            T[] view = viewsByCount.get(count);
+            if (view == null) {
+                view = arrayFactory.apply(count);
+                for (int i = 0; i < count; i++) {
+                    view[i] = get(i);
+                }
+                viewsByCount.set(count, view);
+            }
+            return view;
+        }
+    }
 }
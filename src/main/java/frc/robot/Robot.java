@@ -4,55 +4,84 @@
 
 package frc.robot;
 
-import edu.wpi.first.math.util.Units;
+import java.util.concurrent.CompletableFuture;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.replay.ReplayLog;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.StartupProfiler;
+import frc.robot.vision.VisionThread;
 
 public class Robot extends TimedRobot {
   private Command m_autonomousCommand;
 
   private final RobotContainer m_robotContainer;
 
-  private final boolean kUseLimelight = false;
+  private final boolean kUseLimelight = true;
+
+  private final VisionThread m_visionThread;
+
+  private final LoopProfiler.Section m_robotPeriodicTiming = LoopProfiler.section("robotPeriodic");
+  private final LoopProfiler.Section m_containerTiming = LoopProfiler.section("RobotContainer.periodic");
+  private final LoopProfiler.Section m_schedulerTiming = LoopProfiler.section("CommandScheduler.run");
 
   public Robot() {
-    m_robotContainer = new RobotContainer();
+    StartupProfiler startup = new StartupProfiler();
+
+    /* Records every NetworkTables update, including Limelight results, for off-robot replay */
+    startup.time("DataLog", () -> {
+      DataLogManager.start();
+      DriverStation.startDataLog(DataLogManager.getLog());
+      ReplayLog.start(DataLogManager.getLog());
+    });
+
+    m_robotContainer = startup.time("RobotContainer", () -> new RobotContainer(startup));
+
+    /*
+     * Limelight ingestion, filtering and hand-off to the pose estimator run on their own thread
+     * so they never add to the main loop; see VisionThread. Its NetworkTables setup loads
+     * alongside whatever RobotContainer left running on the startup executor.
+     */
+    CompletableFuture<VisionThread> visionThread = kUseLimelight
+        ? startup.submit("Vision", () -> new VisionThread(m_robotContainer.drivetrain, "limelight", "limelight-front"))
+        : CompletableFuture.completedFuture(null);
+
+    startup.finish();
+    m_robotContainer.finishStartup();
+
+    m_visionThread = visionThread.join();
+    if (m_visionThread != null) {
+      m_visionThread.start();
+    }
   }
 
   @Override
   public void robotPeriodic() {
+    m_robotPeriodicTiming.start();
 
+    m_containerTiming.start();
     m_robotContainer.periodic();
+    m_containerTiming.stop();
 
+    m_schedulerTiming.start();
     CommandScheduler.getInstance().run();
+    m_schedulerTiming.stop();
 
-    /*
-     * This example of adding Limelight is very simple and may not be sufficient for on-field use.
-     * Users typically need to provide a standard deviation that scales with the distance to target
-     * and changes with number of tags available.
-     *
-     * This example is sufficient to show that vision integration is possible, though exact implementation
-     * of how to use vision should be tuned per-robot and to the team's specification.
-     */
-    if (kUseLimelight) {
-      var driveState = m_robotContainer.drivetrain.getState();
-      double headingDeg = driveState.Pose.getRotation().getDegrees();
-      double omegaRps = Units.radiansToRotations(driveState.Speeds.omegaRadiansPerSecond);
-
-      LimelightHelpers.SetRobotOrientation("limelight", headingDeg, 0, 0, 0, 0, 0);
-      var llMeasurement = LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2("limelight");
-      if (llMeasurement != null && llMeasurement.tagCount > 0 && Math.abs(omegaRps) < 2.0) {
-        m_robotContainer.drivetrain.addVisionMeasurement(llMeasurement.pose, llMeasurement.timestampSeconds);
-      }
-    }
+    m_robotPeriodicTiming.stop();
+    LoopProfiler.publish();
   }
 
   @Override
   public void disabledInit() {}
 
   @Override
-  public void disabledPeriodic() {}
+  public void disabledPeriodic() {
+    m_robotContainer.runWarmup();
+  }
 
   @Override
   public void disabledExit() {}
@@ -96,6 +125,11 @@ public class Robot extends TimedRobot {
   @Override
   public void testExit() {}
 
+  @Override
+  public void simulationInit() {
+    m_robotContainer.drivetrain.startLockstepSim();
+  }
+
   @Override
   public void simulationPeriodic() {}
 }
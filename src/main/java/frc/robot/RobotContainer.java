@@ -6,22 +6,37 @@ package frc.robot;
 
 import static edu.wpi.first.units.Units.*;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import com.ctre.phoenix6.swerve.SwerveModule.DriveRequestType;
 import com.ctre.phoenix6.swerve.SwerveRequest;
 import com.ctre.phoenix6.swerve.SwerveRequest.RobotCentric;
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.commands.FollowPathCommand;
-
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.pathfinding.Pathfinding;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Joystick;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.PrintCommand;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
@@ -29,9 +44,20 @@ import edu.wpi.first.wpilibj2.command.button.JoystickButton;
 import edu.wpi.first.wpilibj2.command.button.RobotModeTriggers;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Direction;
 
+import frc.robot.LimelightHelpers.PoseEstimate;
+import frc.robot.field.FieldTargets;
 import frc.robot.generated.TunerConstants;
+import frc.robot.pathfinding.GridPathfinder;
 import frc.robot.subsystems.CommandSwerveDrivetrain;
+import frc.robot.subsystems.CommandSwerveDrivetrain.EstimatorBackend;
 import frc.robot.subsystems.LimeLight;
+import frc.robot.trajectory.TrajectoryCache;
+import frc.robot.util.StartupProfiler;
+import frc.robot.util.Warmup;
+import frc.robot.vision.CameraArbiter;
+import frc.robot.vision.VisionFusion;
+import frc.robot.vision.VisionIngestor;
+import frc.robot.vision.VisionMeasurement;
 
 public class RobotContainer {
 
@@ -53,31 +79,62 @@ public class RobotContainer {
     private final SwerveRequest.RobotCentric forwardStraight = new SwerveRequest.RobotCentric()
             .withDriveRequestType(DriveRequestType.OpenLoopVoltage);
 
-    private final Telemetry logger = new Telemetry(MaxSpeed);
+    private final Telemetry logger;
 
     private final Joystick joystick = new Joystick(0);
     private final Joystick r_joystick = new Joystick(1);
 
-    public final CommandSwerveDrivetrain drivetrain = TunerConstants.createDrivetrain();
+    public final CommandSwerveDrivetrain drivetrain;
 
 
     private String robot_state = "Getting Game Piece";
 
-    /* Path follower */
-    private final SendableChooser<Command> autoChooser;
+    /* Path follower. The chooser only holds names; the selected auto is built when it is picked */
+    private static final String kDefaultAuto = "Tests";
+    private static final String kCachedPathPrefix = "Path: ";
+    /* Where vision is fused into the pose estimate */
+    private static final EstimatorBackend kEstimatorBackend = EstimatorBackend.PHOENIX;
+    /* Clearance the pathfinder keeps from navgrid obstacles, on top of the grid's own margin */
+    private static final double kPathfindingInflation = 0.15;
+
+    private static final PathConstraints kSnapConstraints =
+        new PathConstraints(2.0, 2.0, Units.degreesToRadians(360), Units.degreesToRadians(720));
+    /* Targets closer than this are driven to directly instead of pathfound to */
+    private static final double kSnapDirectDistance = 1.5;
+    /* Loaded on the startup executor; null if that failed */
+    private FieldTargets fieldTargets = null;
+    private int m_nearestTarget = -1;
+    private final SendableChooser<String> autoChooser = new SendableChooser<>();
+    /* Chooser options, listed on the startup executor */
+    private final CompletableFuture<List<String>> autoOptions;
+    private TrajectoryCache trajectoryCache;
+    private String m_builtAutoName = null;
+    private Command m_builtAuto = null;
 
     private boolean isRobotCentric = false; // Toggle for driving mode
 
     private final Field2d field = new Field2d();
 
-    public RobotContainer() {
+    private final Warmup warmup = new Warmup();
+
+    /**
+     * Constructs the robot. Phases that do not depend on each other load concurrently on the
+     * startup executor; the caller joins them with {@link StartupProfiler#finish()} and then
+     * calls {@link #finishStartup()}.
+     *
+     * @param startup Profiler timing robot startup
+     */
+    public RobotContainer(StartupProfiler startup) {
+        /* Everything else needs the drivetrain, and AutoBuilder is configured in its constructor */
+        drivetrain = startup.time("Drivetrain", () -> TunerConstants.createDrivetrain(kEstimatorBackend));
+
+        CompletableFuture<Telemetry> telemetry = startup.submit("Telemetry", () -> new Telemetry(MaxSpeed));
+        autoOptions = startup.submit("AutoList", this::listAutos);
+        startup.submit("Navigation", this::configureNavigation);
 
         SmartDashboard.putData("Field", field);
         // NetworkTableInstance.getDefault().getTable("Field").getEntry("Field").setValue(field);
 
-        
-        autoChooser = AutoBuilder.buildAutoChooser("Tests");
-        SmartDashboard.putData("Auto Mode", autoChooser);
         SmartDashboard.putString("robot_state", robot_state);
         
 
@@ -87,10 +144,119 @@ public class RobotContainer {
         // Add a button to SmartDashboard
         SmartDashboard.putData("Test Button", new InstantCommand(()->SmartDashboard.putString("robot_state", "Scoring Game Piece" )));
 
-        configureBindings();
+        startup.time("Bindings", this::configureBindings);
+
+        logger = telemetry.join();
+        drivetrain.registerTelemetry(logger::telemeterize);
 
         // Warmup PathPlanner to avoid Java pauses
-        FollowPathCommand.warmupCommand().schedule();
+        startup.time("PathPlannerWarmup", () -> FollowPathCommand.warmupCommand().schedule());
+        configureWarmup();
+    }
+
+    /**
+     * Registers the drive and vision hot paths warmed up while disabled. Every body runs the
+     * real code on synthetic inputs and private scratch objects, never commanding hardware.
+     */
+    private void configureWarmup() {
+        /* A two-tag MegaTag2 result: pose, latency, tag stats, then 7 values per fiducial */
+        final double[] botpose = {
+            4.1, 4.0, 0, 0, 0, 178, 25, 2, 1.2, 2.8, 0.4,
+            7, 0.1, -0.05, 0.3, 2.7, 2.6, 0.05,
+            8, -0.12, 0.02, 0.35, 2.9, 2.8, 0.07
+        };
+        final PoseEstimate estimate = new PoseEstimate(VisionIngestor.kMaxFiducials);
+        final VisionMeasurement measurement = new VisionMeasurement();
+        final VisionFusion fusion = new VisionFusion(CommandSwerveDrivetrain.kVisionHardResetDistance);
+        warmup.register("MegaTag2Ingest", () -> {
+            LimelightHelpers.decodeBotPoseEstimateInto(botpose, 1_000_000, true, estimate);
+            fusion.computeStdDevs(estimate, measurement);
+            CameraArbiter.score(estimate, 0.5);
+        });
+        warmup.register("MegaTag2Estimate", () -> LimelightHelpers.toPoseEstimate(botpose, 1_000_000, true));
+
+        /* The odometry thread's half of Telemetry.telemeterize, into a private queue */
+        final TelemetryQueue telemetryQueue = new TelemetryQueue(2);
+        warmup.register("TelemetryCopy", () -> {
+            telemetryQueue.offer(drivetrain.getState());
+            telemetryQueue.peek();
+            telemetryQueue.release();
+        });
+
+        /* Far older than the pose history, so the estimator discards it after the full call path */
+        final Pose2d visionPose = new Pose2d(4.1, 4.0, Rotation2d.k180deg);
+        final var visionStdDevs = VecBuilder.fill(0.5, 0.5, 9999999);
+        warmup.register("AddVisionMeasurement", () -> drivetrain.addVisionMeasurement(visionPose, -1000.0, visionStdDevs));
+
+        /* The default command's request building, on requests that are never applied */
+        final SwerveRequest.FieldCentric warmupDrive = new SwerveRequest.FieldCentric();
+        final RobotCentric warmupRobotCentric = new SwerveRequest.RobotCentric();
+        warmup.register("DriverRequest", () -> {
+            driverRequest(warmupDrive, warmupRobotCentric, false, 0.3, -0.5, 0.2, MaxSpeed);
+            driverRequest(warmupDrive, warmupRobotCentric, true, 0.3, -0.5, 0.2, MaxSpeed);
+        });
+    }
+
+    /** Runs a time-sliced step of the JIT warmup. Call from disabledPeriodic. */
+    public void runWarmup() {
+        warmup.runSlice();
+    }
+
+    /* Runs on the startup executor */
+    private void configureNavigation() {
+        AprilTagFieldLayout layout = AprilTagFieldLayout.loadField(AprilTagFields.kDefaultField);
+        fieldTargets = FieldTargets.forGame(layout);
+        field.getObject("FieldTargets").setPoses(fieldTargets.getPoses());
+
+        try {
+            GridPathfinder pathfinder = new GridPathfinder(kPathfindingInflation);
+            /* Field targets are where drive-to-pose commands head */
+            Translation2d[] goals = new Translation2d[fieldTargets.size()];
+            for (int i = 0; i < goals.length; ++i) {
+                goals[i] = fieldTargets.get(i).pose.getTranslation();
+            }
+            pathfinder.precompute(goals);
+            Pathfinding.setPathfinder(pathfinder);
+        } catch (IOException ex) {
+            DriverStation.reportError("Failed to load the navigation grid, using PathPlanner's pathfinder", ex.getStackTrace());
+        }
+    }
+
+    /*
+     * Runs on the startup executor. Only reads files: building a command registers it with
+     * the CommandScheduler, so that waits for finishStartup() on the main thread.
+     */
+    private List<String> listAutos() {
+        trajectoryCache = TrajectoryCache.open();
+
+        /*
+         * Listing the autos and cached paths is cheap; only the selected option is parsed,
+         * so boot time does not grow with the size of the auto library.
+         */
+        List<String> options = new ArrayList<>();
+        for (String auto : AutoBuilder.getAllAutoNames()) {
+            if (!auto.equals(kDefaultAuto)) {
+                options.add(auto);
+            }
+        }
+        for (String path : trajectoryCache.getPathNames()) {
+            options.add(kCachedPathPrefix + path);
+        }
+        return options;
+    }
+
+    /**
+     * Fills the auto chooser and builds the default auto. Call on the main thread once
+     * {@link StartupProfiler#finish()} has returned.
+     */
+    public void finishStartup() {
+        autoChooser.setDefaultOption(kDefaultAuto, kDefaultAuto);
+        for (String option : autoOptions.join()) {
+            autoChooser.addOption(option, option);
+        }
+        autoChooser.onChange(this::buildAuto);
+        buildAuto(kDefaultAuto);
+        SmartDashboard.putData("Auto Mode", autoChooser);
     }
 
     private void configureBindings() {
@@ -99,13 +265,7 @@ public class RobotContainer {
         drivetrain.setDefaultCommand(
             // Drivetrain will execute this command periodically
             drivetrain.applyRequest(() ->
-                isRobotCentric
-                    ? r_drive.withVelocityX(joystick.getY() * MaxSpeed) // Robot-relative forward/backward
-                              .withVelocityY(joystick.getX() * MaxSpeed) // Robot-relative left/right
-                              .withRotationalRate(r_joystick.getX() * -1) // Robot-relative rotation
-                    : drive.withVelocityX(joystick.getY() * MaxSpeed) // Field-relative forward/backward
-                           .withVelocityY(joystick.getX() * MaxSpeed) // Field-relative left/right
-                           .withRotationalRate(r_joystick.getX() * -1) // Field-relative rotation
+                driverRequest(drive, r_drive, isRobotCentric, joystick.getX(), joystick.getY(), r_joystick.getX(), MaxSpeed)
             )
         );
 
@@ -152,55 +312,113 @@ public class RobotContainer {
 
         new JoystickButton(joystick, 2).onTrue(drivetrain.runOnce(() -> drivetrain.seedFieldCentric()));
 
-        drivetrain.registerTelemetry(logger::telemeterize);
+        // Drive to the nearest scoring or pickup location while held
+        new JoystickButton(joystick, 8).whileTrue(snapToNearestTarget());
     }
 
-    public void periodic() {
-
+    /**
+     * Builds the teleop drive request from raw joystick axes. This is exactly what the
+     * default command runs every loop; it is static so the benchmarks can exercise it too.
+     *
+     * @param fieldCentric   Field-centric request to update
+     * @param robotCentric   Robot-centric request to update
+     * @param isRobotCentric Whether to drive robot-centric
+     * @param stickX         Translation joystick X axis
+     * @param stickY         Translation joystick Y axis
+     * @param rotationStickX Rotation joystick X axis
+     * @param maxSpeed       Maximum speed in meters per second
+     * @return The updated request to apply
+     */
+    static SwerveRequest driverRequest(
+        SwerveRequest.FieldCentric fieldCentric,
+        RobotCentric robotCentric,
+        boolean isRobotCentric,
+        double stickX,
+        double stickY,
+        double rotationStickX,
+        double maxSpeed
+    ) {
+        return isRobotCentric
+            ? robotCentric.withVelocityX(stickY * maxSpeed) // Robot-relative forward/backward
+                          .withVelocityY(stickX * maxSpeed) // Robot-relative left/right
+                          .withRotationalRate(rotationStickX * -1) // Robot-relative rotation
+            : fieldCentric.withVelocityX(stickY * maxSpeed) // Field-relative forward/backward
+                          .withVelocityY(stickX * maxSpeed) // Field-relative left/right
+                          .withRotationalRate(rotationStickX * -1); // Field-relative rotation
+    }
 
-        // If any of the limelights see an april tag they set the robots possition to the possition given my the limelight
+    public void periodic() {
 
-        // We will need to add ofsets to these because the limelights will not be mounted in the direct center of the robot
-        if (m_frontLimelight.tv == 1){
-            Pose2d m_pos2d = new Pose2d(
-                m_frontLimelight.Pos_data[0],
-                m_frontLimelight.Pos_data[1],
-                new Rotation2d(m_frontLimelight.Pos_data[5])
-            );
-            drivetrain.resetPose(m_pos2d);
-        }
 
-        // If any of the limelights see an april tag they set the robots possition to the possition given my the limelight
-        if (m_backLimelight.tv == 1){
-            Pose2d m_pos2d = new Pose2d(
-                m_backLimelight.Pos_data[0],
-                m_backLimelight.Pos_data[1],
-                new Rotation2d(m_backLimelight.Pos_data[5])
-            );
-            drivetrain.resetPose(m_pos2d);
-        }
+        // Vision is fused into the pose estimator by the vision thread (see VisionThread and
+        // CommandSwerveDrivetrain.drainVisionMeasurements), so nothing resets the pose here.
 
 
         // Gonna be completely honest copilot is helping me figure out how to do this and it said to do this so yeah
 
         // Ensure drivetrain state is not null
         if (drivetrain.getState() != null && drivetrain.getState().Pose != null) {
-            field.setRobotPose(drivetrain.getState().Pose);
+            field.setRobotPose(drivetrain.getPose());
         } else {
             System.out.println("Warning: Drivetrain state or pose is null!");
         }
 
 
 
-        // This updates the objects on the field if we can get it working we will use limelights to update this
-        field.getObject("GameObjects").setPoses(List.of(
-            new Pose2d(3.0, 2.0, new Rotation2d(0)), // Example positions
-            new Pose2d(5.0, 1.0, new Rotation2d(0))
-        ));
+        // The field targets are drawn once at startup; only the nearest one is tracked here
+        if (fieldTargets != null) {
+            Pose2d pose = drivetrain.getPose();
+            int nearest = fieldTargets.nearest(pose.getX(), pose.getY());
+            if (nearest != m_nearestTarget && nearest >= 0) {
+                field.getObject("NearestTarget").setPose(fieldTargets.get(nearest).pose);
+            }
+            m_nearestTarget = nearest;
+        }
+    }
+
+    /*
+     * Drives to whichever field target is nearest when the command starts: straight there if it
+     * is close, otherwise pathfinding around obstacles first and aligning on the last stretch
+     */
+    private Command snapToNearestTarget() {
+        return Commands.defer(() -> {
+            if (fieldTargets == null || m_nearestTarget < 0) {
+                return Commands.none();
+            }
+            Pose2d target = fieldTargets.get(m_nearestTarget).pose;
+            double distance = drivetrain.getPose().getTranslation().getDistance(target.getTranslation());
+            if (distance < kSnapDirectDistance) {
+                return drivetrain.driveToPose(target);
+            }
+            return AutoBuilder.pathfindToPose(target, kSnapConstraints).andThen(drivetrain.driveToPose(target));
+        }, Set.of(drivetrain));
     }
 
     public Command getAutonomousCommand() {
         /* Run the path selected from the auto chooser */
-        return autoChooser.getSelected();
+        buildAuto(autoChooser.getSelected());
+        return m_builtAuto;
+    }
+
+    /* Builds the command for a chooser option, unless it is already built */
+    private void buildAuto(String option) {
+        if (option == null || option.equals(m_builtAutoName)) {
+            return;
+        }
+        m_builtAutoName = option;
+        try {
+            if (option.startsWith(kCachedPathPrefix)) {
+                String path = option.substring(kCachedPathPrefix.length());
+                var cached = trajectoryCache.get(path);
+                m_builtAuto = cached.isPresent()
+                    ? drivetrain.followCachedTrajectory(cached.get())
+                    : AutoBuilder.followPath(PathPlannerPath.fromPathFile(path));
+            } else {
+                m_builtAuto = new PathPlannerAuto(option);
+            }
+        } catch (Exception ex) {
+            DriverStation.reportError("Failed to build auto " + option, ex.getStackTrace());
+            m_builtAuto = Commands.none();
+        }
     }
 }
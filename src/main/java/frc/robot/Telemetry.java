@@ -1,6 +1,9 @@
 package frc.robot;
 
+import java.util.Arrays;
+
 import com.ctre.phoenix6.SignalLogger;
+import com.ctre.phoenix6.Utils;
 import com.ctre.phoenix6.swerve.SwerveDrivetrain.SwerveDriveState;
 
 import edu.wpi.first.math.geometry.Pose2d;
@@ -9,19 +12,32 @@ import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.networktables.DoubleArrayPublisher;
 import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.networktables.StringPublisher;
 import edu.wpi.first.networktables.StructArrayPublisher;
 import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.smartdashboard.Mechanism2d;
 import edu.wpi.first.wpilibj.smartdashboard.MechanismLigament2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj.util.Color8Bit;
+import frc.robot.replay.ReplayLog;
 
 public class Telemetry {
+    /* Default rate of the dashboard tier, the log tier always runs at the odometry rate */
+    private static final double kDefaultDashboardPeriod = 0.1;
+    /* The consumer drains the queue at this period, a few samples per run at 250 Hz odometry */
+    private static final double kConsumerPeriod = 0.01; // 10 ms
+    private static final int kQueueCapacity = 64;
+
     private final double MaxSpeed;
+    private final double m_dashboardPeriod;
+    private double m_lastDashboardTime = Double.NEGATIVE_INFINITY;
 
     /**
      * Construct a telemetry object, with the specified max speed of the robot
@@ -29,8 +45,42 @@ public class Telemetry {
      * @param maxSpeed Maximum speed in meters per second
      */
     public Telemetry(double maxSpeed) {
+        this(maxSpeed, kDefaultDashboardPeriod);
+    }
+
+    /**
+     * Construct a telemetry object, with the specified max speed of the robot
+     * and rate of the NetworkTables dashboard channels.
+     * <p>
+     * The odometry thread only copies each state into a lock-free queue; a separate
+     * telemetry thread does all of the publishing, so a stall there never delays
+     * odometry. Every state is written to SignalLogger. The NetworkTables and SmartDashboard
+     * channels are decimated to at most one update per dashboard period, and
+     * values that have not changed since they were last published are skipped.
+     * 
+     * @param maxSpeed Maximum speed in meters per second
+     * @param dashboardPeriod Minimum time between dashboard updates in seconds
+     */
+    public Telemetry(double maxSpeed, double dashboardPeriod) {
         MaxSpeed = maxSpeed;
+        m_dashboardPeriod = dashboardPeriod;
         SignalLogger.start();
+
+        /* Start the change detection from NaN so the first dashboard update publishes everything */
+        Arrays.fill(m_lastPoseArray, Double.NaN);
+        Arrays.fill(m_lastModuleStatesArray, Double.NaN);
+        Arrays.fill(m_lastModuleTargetsArray, Double.NaN);
+        Arrays.fill(m_lastModulePositionsArray, Double.NaN);
+        Arrays.fill(m_lastSpeedsArray, Double.NaN);
+
+        /* Static metadata is only published once */
+        fieldTypePub.set("Field2d");
+        for (int i = 0; i < 4; ++i) {
+            SmartDashboard.putData("Module " + i, m_moduleMechanisms[i]);
+        }
+
+        m_consumer.setName("Telemetry");
+        m_consumer.startPeriodic(kConsumerPeriod);
     }
 
     /* What to publish over networktables for telemetry */
@@ -46,6 +96,18 @@ public class Telemetry {
     private final DoublePublisher driveTimestamp = driveStateTable.getDoubleTopic("Timestamp").publish();
     private final DoublePublisher driveOdometryFrequency = driveStateTable.getDoubleTopic("OdometryFrequency").publish();
 
+    private final DoublePublisher driveTelemetryLatency = driveStateTable.getDoubleTopic("TelemetryLatency").publish();
+    private final IntegerPublisher driveTelemetryDropped = driveStateTable.getIntegerTopic("TelemetryDropped").publish();
+
+    /* Hand-off from the odometry thread to the telemetry thread */
+    private final TelemetryQueue m_queue = new TelemetryQueue(kQueueCapacity);
+    private final Notifier m_consumer = new Notifier(this::drain);
+    private long m_lastDroppedCount = -1;
+
+    /* Data log entry read back by the replay engine, created once the robot starts logging */
+    private DoubleArrayLogEntry m_odometryLog = null;
+    private final double[] m_odometryRecord = new double[ReplayLog.odometryLength(4)];
+
     /* Robot pose for field positioning */
     private final NetworkTable table = inst.getTable("Pose");
     private final DoubleArrayPublisher fieldPub = table.getDoubleArrayTopic("robotPose").publish();
@@ -80,19 +142,45 @@ public class Telemetry {
     private final double[] m_poseArray = new double[3];
     private final double[] m_moduleStatesArray = new double[8];
     private final double[] m_moduleTargetsArray = new double[8];
+    private final double[] m_modulePositionsArray = new double[8];
+    private final double[] m_speedsArray = new double[3];
 
-    /** Accept the swerve drive state and telemeterize it to SmartDashboard and SignalLogger. */
+    /* Values as of the last dashboard update, used to skip unchanged channels */
+    private final double[] m_lastPoseArray = new double[3];
+    private final double[] m_lastModuleStatesArray = new double[8];
+    private final double[] m_lastModuleTargetsArray = new double[8];
+    private final double[] m_lastModulePositionsArray = new double[8];
+    private final double[] m_lastSpeedsArray = new double[3];
+    private double m_lastOdometryPeriod = Double.NaN;
+
+    /**
+     * Accept the swerve drive state and queue it to be telemeterized to SmartDashboard
+     * and SignalLogger. This only copies the state, so it is cheap on the odometry thread.
+     */
     public void telemeterize(SwerveDriveState state) {
-        /* Telemeterize the swerve drive state */
-        drivePose.set(state.Pose);
-        driveSpeeds.set(state.Speeds);
-        driveModuleStates.set(state.ModuleStates);
-        driveModuleTargets.set(state.ModuleTargets);
-        driveModulePositions.set(state.ModulePositions);
-        driveTimestamp.set(state.Timestamp);
-        driveOdometryFrequency.set(1.0 / state.OdometryPeriod);
+        m_queue.offer(state);
+    }
 
-        /* Also write to log file */
+    /* Telemetry thread: publish every queued state */
+    private void drain() {
+        SwerveDriveState state;
+        while ((state = m_queue.peek()) != null) {
+            publish(state);
+            m_queue.release();
+        }
+
+        long dropped = m_queue.getDroppedCount();
+        if (dropped != m_lastDroppedCount) {
+            m_lastDroppedCount = dropped;
+            driveTelemetryDropped.set(dropped);
+        }
+    }
+
+    private void publish(SwerveDriveState state) {
+        /* States are published after the fact, so log them with their age */
+        double latency = Utils.getCurrentTimeSeconds() - state.Timestamp;
+
+        /* High rate tier, every state goes to the log file */
         m_poseArray[0] = state.Pose.getX();
         m_poseArray[1] = state.Pose.getY();
         m_poseArray[2] = state.Pose.getRotation().getDegrees();
@@ -103,22 +191,88 @@ public class Telemetry {
             m_moduleTargetsArray[i*2 + 1] = state.ModuleTargets[i].speedMetersPerSecond;
         }
 
-        SignalLogger.writeDoubleArray("DriveState/Pose", m_poseArray);
-        SignalLogger.writeDoubleArray("DriveState/ModuleStates", m_moduleStatesArray);
-        SignalLogger.writeDoubleArray("DriveState/ModuleTargets", m_moduleTargetsArray);
-        SignalLogger.writeDouble("DriveState/OdometryPeriod", state.OdometryPeriod, "seconds");
+        SignalLogger.writeDoubleArray("DriveState/Pose", m_poseArray, "", latency);
+        SignalLogger.writeDoubleArray("DriveState/ModuleStates", m_moduleStatesArray, "", latency);
+        SignalLogger.writeDoubleArray("DriveState/ModuleTargets", m_moduleTargetsArray, "", latency);
+        SignalLogger.writeDouble("DriveState/OdometryPeriod", state.OdometryPeriod, "seconds", latency);
 
-        /* Telemeterize the pose to a Field2d */
-        fieldTypePub.set("Field2d");
-        fieldPub.set(m_poseArray);
+        /* Odometry record for off-robot replay, stamped with the FPGA time of the sample */
+        if (m_odometryLog == null) {
+            DataLog log = ReplayLog.getLog();
+            if (log != null) {
+                m_odometryLog = new DoubleArrayLogEntry(log, ReplayLog.kOdometryEntry);
+            }
+        }
+        if (m_odometryLog != null) {
+            m_odometryRecord[ReplayLog.kRawHeading] = state.RawHeading.getRadians();
+            m_odometryRecord[ReplayLog.kOmega] = state.Speeds.omegaRadiansPerSecond;
+            for (int i = 0; i < 4; ++i) {
+                m_odometryRecord[ReplayLog.kFirstModule + i*2 + 0] = state.ModulePositions[i].distanceMeters;
+                m_odometryRecord[ReplayLog.kFirstModule + i*2 + 1] = state.ModulePositions[i].angle.getRadians();
+            }
+            m_odometryLog.append(m_odometryRecord, (long) (Utils.currentTimeToFPGATime(state.Timestamp) * 1e6));
+        }
+
+        /* Dashboard tier, decimated to the dashboard period */
+        if (state.Timestamp - m_lastDashboardTime < m_dashboardPeriod) {
+            return;
+        }
+        m_lastDashboardTime = state.Timestamp;
 
-        /* Telemeterize the module states to a Mechanism2d */
         for (int i = 0; i < 4; ++i) {
-            m_moduleSpeeds[i].setAngle(state.ModuleStates[i].angle);
-            m_moduleDirections[i].setAngle(state.ModuleStates[i].angle);
-            m_moduleSpeeds[i].setLength(state.ModuleStates[i].speedMetersPerSecond / (2 * MaxSpeed));
+            m_modulePositionsArray[i*2 + 0] = state.ModulePositions[i].angle.getRadians();
+            m_modulePositionsArray[i*2 + 1] = state.ModulePositions[i].distanceMeters;
+        }
+        m_speedsArray[0] = state.Speeds.vxMetersPerSecond;
+        m_speedsArray[1] = state.Speeds.vyMetersPerSecond;
+        m_speedsArray[2] = state.Speeds.omegaRadiansPerSecond;
 
-            SmartDashboard.putData("Module " + i, m_moduleMechanisms[i]);
+        /* Telemeterize the swerve drive state, skipping anything that has not changed */
+        driveTimestamp.set(state.Timestamp);
+        driveTelemetryLatency.set(latency);
+        if (state.OdometryPeriod != m_lastOdometryPeriod) {
+            m_lastOdometryPeriod = state.OdometryPeriod;
+            driveOdometryFrequency.set(1.0 / state.OdometryPeriod);
+        }
+        if (updateIfChanged(m_poseArray, m_lastPoseArray)) {
+            drivePose.set(state.Pose);
+            /* Telemeterize the pose to a Field2d */
+            fieldPub.set(m_poseArray);
+        }
+        if (updateIfChanged(m_speedsArray, m_lastSpeedsArray)) {
+            driveSpeeds.set(state.Speeds);
+        }
+        if (updateIfChanged(m_moduleTargetsArray, m_lastModuleTargetsArray)) {
+            driveModuleTargets.set(state.ModuleTargets);
+        }
+        if (updateIfChanged(m_modulePositionsArray, m_lastModulePositionsArray)) {
+            driveModulePositions.set(state.ModulePositions);
+        }
+        if (updateIfChanged(m_moduleStatesArray, m_lastModuleStatesArray)) {
+            driveModuleStates.set(state.ModuleStates);
+
+            /* Telemeterize the module states to a Mechanism2d */
+            for (int i = 0; i < 4; ++i) {
+                m_moduleSpeeds[i].setAngle(state.ModuleStates[i].angle);
+                m_moduleDirections[i].setAngle(state.ModuleStates[i].angle);
+                m_moduleSpeeds[i].setLength(state.ModuleStates[i].speedMetersPerSecond / (2 * MaxSpeed));
+            }
+        }
+    }
+
+    /**
+     * Copies current into last if they differ.
+     *
+     * @return Whether any element changed
+     */
+    private static boolean updateIfChanged(double[] current, double[] last) {
+        boolean changed = false;
+        for (int i = 0; i < current.length; ++i) {
+            if (current[i] != last[i]) {
+                last[i] = current[i];
+                changed = true;
+            }
         }
+        return changed;
     }
 }
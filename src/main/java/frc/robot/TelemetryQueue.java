@@ -0,0 +1,123 @@
+package frc.robot;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ctre.phoenix6.swerve.SwerveDrivetrain.SwerveDriveState;
+
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Lock-free single-producer/single-consumer ring of preallocated {@link SwerveDriveState} slots.
+ * <p>
+ * The odometry thread copies each state into a slot with {@link #offer(SwerveDriveState)}; the
+ * telemetry thread reads slots with {@link #peek()} and hands them back with {@link #release()}.
+ * Poses and rotations are immutable and shared by reference, everything mutable is copied field
+ * by field, so nothing is allocated after the module arrays are sized on the first sample.
+ */
+public class TelemetryQueue {
+    private final SwerveDriveState[] m_slots;
+    private final int m_mask;
+
+    /* Next slot to read, written only by the consumer */
+    private final AtomicLong m_head = new AtomicLong();
+    /* Next slot to write, written only by the producer */
+    private final AtomicLong m_tail = new AtomicLong();
+    /* Samples dropped because the consumer fell behind */
+    private final AtomicLong m_dropped = new AtomicLong();
+
+    /**
+     * Constructs a queue.
+     *
+     * @param capacity Number of slots, rounded up to a power of two
+     */
+    public TelemetryQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        m_slots = new SwerveDriveState[size];
+        for (int i = 0; i < size; ++i) {
+            m_slots[i] = new SwerveDriveState();
+        }
+        m_mask = size - 1;
+    }
+
+    /**
+     * Producer: copies the state into the next free slot and publishes it.
+     * If the queue is full the sample is dropped and counted instead.
+     *
+     * @param state Drive state to copy
+     * @return Whether the sample was queued
+     */
+    public boolean offer(SwerveDriveState state) {
+        long tail = m_tail.get();
+        if (tail - m_head.get() >= m_slots.length) {
+            m_dropped.incrementAndGet();
+            return false;
+        }
+        copy(state, m_slots[(int) (tail & m_mask)]);
+        m_tail.lazySet(tail + 1);
+        return true;
+    }
+
+    /**
+     * Consumer: returns the oldest queued state without removing it, or null if empty.
+     *
+     * @return Oldest state, or null
+     */
+    public SwerveDriveState peek() {
+        long head = m_head.get();
+        if (head == m_tail.get()) {
+            return null;
+        }
+        return m_slots[(int) (head & m_mask)];
+    }
+
+    /** Consumer: returns the slot from the last {@link #peek()} to the producer. */
+    public void release() {
+        m_head.lazySet(m_head.get() + 1);
+    }
+
+    /** @return Total number of samples dropped because the queue was full */
+    public long getDroppedCount() {
+        return m_dropped.get();
+    }
+
+    private static void copy(SwerveDriveState src, SwerveDriveState dst) {
+        dst.Pose = src.Pose;
+        dst.RawHeading = src.RawHeading;
+        dst.Speeds.vxMetersPerSecond = src.Speeds.vxMetersPerSecond;
+        dst.Speeds.vyMetersPerSecond = src.Speeds.vyMetersPerSecond;
+        dst.Speeds.omegaRadiansPerSecond = src.Speeds.omegaRadiansPerSecond;
+        dst.Timestamp = src.Timestamp;
+        dst.OdometryPeriod = src.OdometryPeriod;
+        dst.SuccessfulDaqs = src.SuccessfulDaqs;
+        dst.FailedDaqs = src.FailedDaqs;
+
+        dst.ModuleStates = copyStates(src.ModuleStates, dst.ModuleStates);
+        dst.ModuleTargets = copyStates(src.ModuleTargets, dst.ModuleTargets);
+
+        if (dst.ModulePositions == null || dst.ModulePositions.length != src.ModulePositions.length) {
+            dst.ModulePositions = new SwerveModulePosition[src.ModulePositions.length];
+            for (int i = 0; i < dst.ModulePositions.length; ++i) {
+                dst.ModulePositions[i] = new SwerveModulePosition();
+            }
+        }
+        for (int i = 0; i < src.ModulePositions.length; ++i) {
+            dst.ModulePositions[i].distanceMeters = src.ModulePositions[i].distanceMeters;
+            dst.ModulePositions[i].angle = src.ModulePositions[i].angle;
+        }
+    }
+
+    private static SwerveModuleState[] copyStates(SwerveModuleState[] src, SwerveModuleState[] dst) {
+        if (dst == null || dst.length != src.length) {
+            dst = new SwerveModuleState[src.length];
+            for (int i = 0; i < dst.length; ++i) {
+                dst[i] = new SwerveModuleState();
+            }
+        }
+        for (int i = 0; i < src.length; ++i) {
+            dst[i].speedMetersPerSecond = src[i].speedMetersPerSecond;
+            dst[i].angle = src[i].angle;
+        }
+        return dst;
+    }
+}
@@ -0,0 +1,126 @@
+package frc.robot.autoeval;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Evaluates every PathPlanner auto in simulation, in parallel.
+ * <p>
+ * Each .auto file is run in its own robot JVM, since the HAL and Phoenix simulations are
+ * process-wide; up to one JVM per core runs at a time. Each child is an {@link AutoEvalRobot}
+ * in lockstep simulation, and each writes a one-row result file. The
+ * rows are collected into a summary table and CSV. The exit code is non-zero if any auto did
+ * not finish cleanly.
+ * <p>
+ * Usage: {@code AutoBatchRunner <autos dir> <output dir> [parallelism]}
+ */
+public class AutoBatchRunner {
+    /* Wall-clock limit for one child, well above the simulated timeout */
+    private static final long kChildTimeoutSeconds = 120;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: AutoBatchRunner <autos dir> <output dir> [parallelism]");
+            System.exit(1);
+        }
+        Path autosDir = Path.of(args[0]);
+        Path outputDir = Path.of(args[1]);
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        List<String> autos = new ArrayList<>();
+        try (Stream<Path> files = Files.list(autosDir)) {
+            files.map(p -> p.getFileName().toString())
+                .filter(name -> name.endsWith(".auto"))
+                .map(name -> name.substring(0, name.length() - ".auto".length()))
+                .sorted()
+                .forEach(autos::add);
+        }
+        if (autos.isEmpty()) {
+            System.err.println("No .auto files in " + autosDir);
+            System.exit(1);
+        }
+        Files.createDirectories(outputDir);
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        List<Future<String>> results = new ArrayList<>();
+        for (String auto : autos) {
+            results.add(pool.submit(() -> runChild(auto, outputDir)));
+        }
+        pool.shutdown();
+
+        boolean allOk = true;
+        Path summary = outputDir.resolve("summary.csv");
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(summary))) {
+            csv.println(AutoEvaluator.kResultHeader);
+            System.out.println(AutoEvaluator.kResultHeader);
+            for (Future<String> result : results) {
+                String row = result.get();
+                csv.println(row);
+                System.out.println(row);
+                allOk &= row.split(",")[1].equals("OK");
+            }
+        }
+        System.out.printf("Evaluated %d autos in %.1f s -> %s%n", autos.size(), (System.nanoTime() - start) / 1e9, summary);
+        System.exit(allOk ? 0 : 1);
+    }
+
+    /**
+     * Runs one auto in a child robot JVM.
+     *
+     * @param auto      Name of the auto
+     * @param outputDir Existing directory for the child's result file and output log
+     * @return Result row, with the status HUNG or CRASHED if the child wrote none
+     */
+    static String runChild(String auto, Path outputDir) throws IOException, InterruptedException {
+        Path resultFile = outputDir.resolve(auto + ".csv");
+        Path logFile = outputDir.resolve(auto + ".log");
+        Files.deleteIfExists(resultFile);
+
+        String libraryPath = System.getProperty("java.library.path");
+        ProcessBuilder builder = new ProcessBuilder(
+            Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+            "-Djava.library.path=" + libraryPath,
+            "-cp", System.getProperty("java.class.path"),
+            AutoEvalRobot.class.getName(),
+            auto,
+            resultFile.toAbsolutePath().toString()
+        );
+        Map<String, String> env = builder.environment();
+        env.put("FRC_SIM_LOCKSTEP", "true");
+        /* The simulation JNI libraries load their dependencies through the platform search path */
+        for (String var : new String[] {"LD_LIBRARY_PATH", "DYLD_LIBRARY_PATH", "PATH"}) {
+            String existing = env.get(var);
+            env.put(var, existing == null ? libraryPath : libraryPath + File.pathSeparator + existing);
+        }
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(logFile.toFile());
+
+        Process process = builder.start();
+        if (!process.waitFor(kChildTimeoutSeconds, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            return failedRow(auto, "HUNG");
+        }
+        if (!Files.exists(resultFile)) {
+            return failedRow(auto, "CRASHED");
+        }
+        List<String> lines = Files.readAllLines(resultFile);
+        return lines.size() > 1 ? lines.get(1) : failedRow(auto, "CRASHED");
+    }
+
+    /* Result row with only the auto and status filled in */
+    private static String failedRow(String auto, String status) {
+        return auto + "," + status + ",".repeat(AutoEvaluator.kResultColumns - 2);
+    }
+}
@@ -0,0 +1,66 @@
+package frc.robot.autoeval;
+
+import java.nio.file.Path;
+
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+import frc.robot.generated.TunerConstants;
+import frc.robot.subsystems.CommandSwerveDrivetrain;
+
+/**
+ * Robot program that evaluates a single PathPlanner auto in simulation and exits. This is
+ * the child side of {@link AutoBatchRunner}; the competition {@link frc.robot.Robot} knows
+ * nothing about it.
+ * <p>
+ * It builds only the drivetrain, which also configures AutoBuilder, so the auto runs against
+ * the same drive and path following setup as on the robot without the driver bindings,
+ * vision or dashboards.
+ * <p>
+ * Usage: {@code AutoEvalRobot <auto name> <result file>}, with FRC_SIM_LOCKSTEP=true
+ */
+public class AutoEvalRobot extends TimedRobot {
+    private final CommandSwerveDrivetrain m_drivetrain = TunerConstants.createDrivetrain();
+    private final AutoEvaluator m_evaluator;
+
+    private AutoEvalRobot(String autoName, Path resultFile) {
+        /* Nothing sets a default command here, so register explicitly to run periodic() */
+        m_drivetrain.register();
+        m_evaluator = new AutoEvaluator(m_drivetrain, autoName, resultFile);
+    }
+
+    @Override
+    public void robotPeriodic() {
+        CommandScheduler.getInstance().run();
+        if (m_evaluator.periodic()) {
+            System.exit(m_evaluator.isResultWritten() ? 0 : 1);
+        }
+    }
+
+    @Override
+    public void autonomousInit() {
+        m_evaluator.createCommand().schedule();
+    }
+
+    @Override
+    public void simulationInit() {
+        m_drivetrain.startLockstepSim();
+        m_evaluator.start();
+    }
+
+    public static void main(String... args) {
+        if (args.length < 2) {
+            System.err.println("Usage: AutoEvalRobot <auto name> <result file>");
+            System.exit(1);
+        }
+        /* On the wall clock the sampled pose and currents lag by however busy the host is */
+        if (!CommandSwerveDrivetrain.kLockstepSim) {
+            System.err.println("AutoEvalRobot needs lockstep simulation (FRC_SIM_LOCKSTEP=true)");
+            System.exit(1);
+        }
+        String autoName = args[0];
+        Path resultFile = Path.of(args[1]);
+        RobotBase.startRobot(() -> new AutoEvalRobot(autoName, resultFile));
+    }
+}
@@ -0,0 +1,170 @@
+package frc.robot.autoeval;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.util.PathPlannerLogging;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj2.command.Command;
+
+import frc.robot.subsystems.CommandSwerveDrivetrain;
+
+/**
+ * Runs one PathPlanner auto headless in a simulated robot program and records how well it
+ * was followed. {@link AutoEvalRobot} drives it in a child JVM that {@link AutoBatchRunner}
+ * starts per auto, in lockstep simulation so the run is faster than real time.
+ * <p>
+ * While the auto runs, the robot pose is compared against the target pose PathPlanner logs from
+ * its holonomic controller, and the drive and steer stator currents are sampled every loop.
+ * The result row, which ends with the pose the auto finished at, is written once the auto
+ * finishes or times out.
+ * <p>
+ * Both only mean something in lockstep simulation, which samples odometry after every physics
+ * step before the robot loop runs, so the pose read here is the simulated pose at the current
+ * simulated time rather than one that lags by however busy the host is. The error is only taken
+ * from a target logged in the same loop, at the same simulated time as the pose, and the current
+ * signals are sampled as often as odometry so they are just as fresh.
+ */
+public class AutoEvaluator {
+    /* Autos still running after this much simulated time are reported as timed out */
+    private static final double kTimeoutSeconds = 20.0;
+
+    /** Result file header, shared with the batch runner */
+    public static final String kResultHeader =
+        "auto,status,time_s,peak_xy_error_m,peak_heading_error_deg,peak_drive_current_a,peak_steer_current_a,"
+        + "final_x_m,final_y_m,final_heading_deg";
+    /** Number of columns in a result row */
+    public static final int kResultColumns = kResultHeader.split(",").length;
+
+    private final CommandSwerveDrivetrain m_drivetrain;
+    private final String m_autoName;
+    private final Path m_resultFile;
+
+    private Command m_command = null;
+    private double m_startTime = 0;
+    /* Latest PathPlanner target and the simulated time it was logged at */
+    private Pose2d m_targetPose = null;
+    private double m_targetTime = Double.NaN;
+    private final StatusSignal<?>[] m_driveCurrents = new StatusSignal<?>[4];
+    private final StatusSignal<?>[] m_steerCurrents = new StatusSignal<?>[4];
+    private final BaseStatusSignal[] m_currents = new BaseStatusSignal[8];
+
+    private double m_peakXYError = 0;
+    private double m_peakHeadingError = 0;
+    private double m_peakDriveCurrent = 0;
+    private double m_peakSteerCurrent = 0;
+
+    private boolean m_finished = false;
+    private boolean m_resultWritten = false;
+
+    /**
+     * Constructs an evaluator.
+     *
+     * @param drivetrain Drivetrain running the auto
+     * @param autoName   Name of the PathPlanner auto to run
+     * @param resultFile File to write the result row to
+     */
+    public AutoEvaluator(CommandSwerveDrivetrain drivetrain, String autoName, Path resultFile) {
+        m_drivetrain = drivetrain;
+        m_autoName = autoName;
+        m_resultFile = resultFile;
+
+        for (int i = 0; i < 4; ++i) {
+            var module = m_drivetrain.getModule(i);
+            m_driveCurrents[i] = module.getDriveMotor().getStatorCurrent(false);
+            m_steerCurrents[i] = module.getSteerMotor().getStatorCurrent(false);
+            m_currents[i * 2] = m_driveCurrents[i];
+            m_currents[i * 2 + 1] = m_steerCurrents[i];
+        }
+    }
+
+    /** Enables the simulated robot in autonomous and starts listening for PathPlanner targets. */
+    public void start() {
+        /* Called from the path following command, so on the robot loop thread */
+        PathPlannerLogging.setLogTargetPoseCallback(pose -> {
+            m_targetPose = pose;
+            m_targetTime = Timer.getFPGATimestamp();
+        });
+        BaseStatusSignal.setUpdateFrequencyForAll(CommandSwerveDrivetrain.kLockstepOdometryFrequency, m_currents);
+
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAutonomous(true);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+    }
+
+    /**
+     * Builds the auto under evaluation and starts the clock on it.
+     *
+     * @return Auto command to schedule
+     */
+    public Command createCommand() {
+        m_command = new PathPlannerAuto(m_autoName);
+        m_startTime = Timer.getFPGATimestamp();
+        return m_command;
+    }
+
+    /**
+     * Samples tracking error and current, and writes the result once the auto is done.
+     *
+     * @return True once the evaluation has finished
+     */
+    public boolean periodic() {
+        if (m_finished) {
+            return true;
+        }
+        if (m_command == null) {
+            return false;
+        }
+
+        double now = Timer.getFPGATimestamp();
+        /* Only a target from this loop was computed against the pose odometry has right now */
+        if (m_targetPose != null && m_targetTime == now) {
+            Pose2d pose = m_drivetrain.getPose();
+            m_peakXYError = Math.max(m_peakXYError, pose.getTranslation().getDistance(m_targetPose.getTranslation()));
+            m_peakHeadingError = Math.max(m_peakHeadingError,
+                Math.abs(pose.getRotation().minus(m_targetPose.getRotation()).getDegrees()));
+        }
+        BaseStatusSignal.refreshAll(m_currents);
+        for (int i = 0; i < 4; ++i) {
+            m_peakDriveCurrent = Math.max(m_peakDriveCurrent, Math.abs(m_driveCurrents[i].getValueAsDouble()));
+            m_peakSteerCurrent = Math.max(m_peakSteerCurrent, Math.abs(m_steerCurrents[i].getValueAsDouble()));
+        }
+
+        double elapsed = now - m_startTime;
+        if (!m_command.isScheduled()) {
+            finish("OK", elapsed);
+        } else if (elapsed > kTimeoutSeconds) {
+            finish("TIMEOUT", elapsed);
+        }
+        return m_finished;
+    }
+
+    /** @return Whether the result row was written after the evaluation finished */
+    public boolean isResultWritten() {
+        return m_resultWritten;
+    }
+
+    private void finish(String status, double elapsed) {
+        Pose2d pose = m_drivetrain.getPose();
+        String row = String.format(Locale.ROOT, "%s,%s,%.3f,%.4f,%.2f,%.1f,%.1f,%.4f,%.4f,%.3f",
+            m_autoName, status, elapsed, m_peakXYError, m_peakHeadingError, m_peakDriveCurrent, m_peakSteerCurrent,
+            pose.getX(), pose.getY(), pose.getRotation().getDegrees());
+        m_finished = true;
+        try {
+            Files.writeString(m_resultFile, kResultHeader + System.lineSeparator() + row + System.lineSeparator());
+            m_resultWritten = true;
+        } catch (IOException e) {
+            System.err.println("Could not write auto evaluation result: " + e.getMessage());
+        }
+    }
+}
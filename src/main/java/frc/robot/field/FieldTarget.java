@@ -0,0 +1,31 @@
+package frc.robot.field;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+/** A place on the field the robot drives to, with the robot pose it should reach there. */
+public class FieldTarget {
+    /** What the robot does at a target */
+    public enum Type {
+        SCORING,
+        PICKUP
+    }
+
+    public final String name;
+    public final Type type;
+    /** AprilTag the target is placed relative to */
+    public final int tagId;
+    /** Robot pose at the target, blue alliance origin */
+    public final Pose2d pose;
+
+    FieldTarget(String name, Type type, int tagId, Pose2d pose) {
+        this.name = name;
+        this.type = type;
+        this.tagId = tagId;
+        this.pose = pose;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,258 @@
+package frc.robot.field;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+
+/**
+ * Registry of field targets placed relative to AprilTags, with a uniform grid index for
+ * nearest-target and within-radius queries.
+ * <p>
+ * Target positions are stored in flat arrays bucketed by grid cell, so queries touch only the
+ * cells near the query point and allocate nothing; they are cheap enough to run every loop.
+ */
+public class FieldTargets {
+    /* Side of a grid cell, in meters */
+    private static final double kCellSize = 1.0;
+
+    /* Robot center distance in front of the tag, and reef branch offset from the tag */
+    private static final double kTargetStandoff = 0.45;
+    private static final double kReefBranchOffset = 0.165;
+    private static final int[] kReefTags = {6, 7, 8, 9, 10, 11, 17, 18, 19, 20, 21, 22};
+
+    /** How to place targets relative to a set of AprilTags. */
+    public static class Spec {
+        final String name;
+        final FieldTarget.Type type;
+        final int[] tagIds;
+        final double standoff;
+        final double lateral;
+
+        /**
+         * @param name     Name of the targets, suffixed with the tag ID
+         * @param type     What the robot does at the targets
+         * @param standoff Distance of the robot center in front of the tag, in meters
+         * @param lateral  Offset to the tag's left as seen facing it, in meters
+         * @param tagIds   AprilTags to place a target at
+         */
+        public Spec(String name, FieldTarget.Type type, double standoff, double lateral, int... tagIds) {
+            this.name = name;
+            this.type = type;
+            this.tagIds = tagIds;
+            this.standoff = standoff;
+            this.lateral = lateral;
+        }
+    }
+
+    private final FieldTarget[] m_targets;
+    private final double[] m_x;
+    private final double[] m_y;
+    private final int m_columns;
+    private final int m_rows;
+    /* Targets of cell c are m_cellTargets[m_cellStart[c] .. m_cellStart[c + 1]) */
+    private final int[] m_cellStart;
+    private final int[] m_cellTargets;
+
+    /**
+     * Builds the registry of this game's scoring and pickup targets: both reef branches of
+     * every reef face, the processors and the coral stations.
+     *
+     * @param layout AprilTag field layout
+     * @return Field targets
+     */
+    public static FieldTargets forGame(AprilTagFieldLayout layout) {
+        return fromLayout(layout,
+            new Spec("Reef Left", FieldTarget.Type.SCORING, kTargetStandoff, kReefBranchOffset, kReefTags),
+            new Spec("Reef Right", FieldTarget.Type.SCORING, kTargetStandoff, -kReefBranchOffset, kReefTags),
+            new Spec("Processor", FieldTarget.Type.SCORING, kTargetStandoff, 0, 3, 16),
+            new Spec("Coral Station", FieldTarget.Type.PICKUP, kTargetStandoff, 0, 1, 2, 12, 13)
+        );
+    }
+
+    /**
+     * Builds the registry from an AprilTag layout. Tags missing from the layout are skipped.
+     *
+     * @param layout AprilTag field layout
+     * @param specs  Where to place targets
+     * @return Field targets
+     */
+    public static FieldTargets fromLayout(AprilTagFieldLayout layout, Spec... specs) {
+        List<FieldTarget> targets = new ArrayList<>();
+        for (Spec spec : specs) {
+            for (int tagId : spec.tagIds) {
+                layout.getTagPose(tagId).ifPresent(tagPose -> {
+                    /* The tag faces out along its +X; the robot sits in front of it, facing it */
+                    Pose2d pose = tagPose.toPose2d().transformBy(
+                        new Transform2d(spec.standoff, -spec.lateral, Rotation2d.k180deg));
+                    targets.add(new FieldTarget(spec.name + " " + tagId, spec.type, tagId, pose));
+                });
+            }
+        }
+        return new FieldTargets(targets, layout.getFieldLength(), layout.getFieldWidth());
+    }
+
+    /**
+     * Builds the registry and its index.
+     *
+     * @param targets     Targets
+     * @param fieldLength Length of the field along X, in meters
+     * @param fieldWidth  Width of the field along Y, in meters
+     */
+    public FieldTargets(List<FieldTarget> targets, double fieldLength, double fieldWidth) {
+        m_targets = targets.toArray(new FieldTarget[0]);
+        m_x = new double[m_targets.length];
+        m_y = new double[m_targets.length];
+        m_columns = Math.max(1, (int) Math.ceil(fieldLength / kCellSize));
+        m_rows = Math.max(1, (int) Math.ceil(fieldWidth / kCellSize));
+
+        /* Counting sort of the targets by cell */
+        m_cellStart = new int[m_columns * m_rows + 1];
+        int[] cells = new int[m_targets.length];
+        for (int i = 0; i < m_targets.length; ++i) {
+            m_x[i] = m_targets[i].pose.getX();
+            m_y[i] = m_targets[i].pose.getY();
+            cells[i] = cellIndex(column(m_x[i]), row(m_y[i]));
+            ++m_cellStart[cells[i] + 1];
+        }
+        for (int c = 0; c < m_columns * m_rows; ++c) {
+            m_cellStart[c + 1] += m_cellStart[c];
+        }
+        m_cellTargets = new int[m_targets.length];
+        int[] fill = m_cellStart.clone();
+        for (int i = 0; i < m_targets.length; ++i) {
+            m_cellTargets[fill[cells[i]]++] = i;
+        }
+    }
+
+    /** @return Number of targets */
+    public int size() {
+        return m_targets.length;
+    }
+
+    /**
+     * @param index Target index
+     * @return The target
+     */
+    public FieldTarget get(int index) {
+        return m_targets[index];
+    }
+
+    /** @return Robot poses of every target, in index order */
+    public List<Pose2d> getPoses() {
+        List<Pose2d> poses = new ArrayList<>(m_targets.length);
+        for (FieldTarget target : m_targets) {
+            poses.add(target.pose);
+        }
+        return poses;
+    }
+
+    /**
+     * Finds the target closest to a point.
+     *
+     * @param x Field X, in meters
+     * @param y Field Y, in meters
+     * @return Index of the nearest target, or -1 if there are none
+     */
+    public int nearest(double x, double y) {
+        return nearest(x, y, null);
+    }
+
+    /**
+     * Finds the target of a type closest to a point.
+     *
+     * @param x    Field X, in meters
+     * @param y    Field Y, in meters
+     * @param type Type of target, or null for any
+     * @return Index of the nearest target, or -1 if there are none
+     */
+    public int nearest(double x, double y, FieldTarget.Type type) {
+        int cx = column(x);
+        int cy = row(y);
+        int best = -1;
+        double bestDist2 = Double.POSITIVE_INFINITY;
+        int maxRing = Math.max(m_columns, m_rows);
+        for (int ring = 0; ring <= maxRing; ++ring) {
+            /* Every cell of this ring is at least this far from the query point */
+            double ringDist = (ring - 1) * kCellSize;
+            if (ring > 0 && best >= 0 && bestDist2 <= ringDist * ringDist) {
+                break;
+            }
+            for (int dy = -ring; dy <= ring; ++dy) {
+                boolean edgeRow = dy == -ring || dy == ring;
+                for (int dx = -ring; dx <= ring; dx += edgeRow ? 1 : 2 * ring) {
+                    int col = cx + dx;
+                    int row = cy + dy;
+                    if (col < 0 || row < 0 || col >= m_columns || row >= m_rows) {
+                        continue;
+                    }
+                    int cell = cellIndex(col, row);
+                    for (int k = m_cellStart[cell]; k < m_cellStart[cell + 1]; ++k) {
+                        int i = m_cellTargets[k];
+                        if (type != null && m_targets[i].type != type) {
+                            continue;
+                        }
+                        double ddx = m_x[i] - x;
+                        double ddy = m_y[i] - y;
+                        double dist2 = ddx * ddx + ddy * ddy;
+                        if (dist2 < bestDist2) {
+                            bestDist2 = dist2;
+                            best = i;
+                        }
+                    }
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds every target within a radius of a point, in no particular order.
+     *
+     * @param x      Field X, in meters
+     * @param y      Field Y, in meters
+     * @param radius Search radius, in meters
+     * @param out    Receives target indices; results beyond its length are dropped
+     * @return Number of indices written to out
+     */
+    public int withinRadius(double x, double y, double radius, int[] out) {
+        int count = 0;
+        double radius2 = radius * radius;
+        int col0 = Math.max(0, column(x - radius));
+        int col1 = Math.min(m_columns - 1, column(x + radius));
+        int row0 = Math.max(0, row(y - radius));
+        int row1 = Math.min(m_rows - 1, row(y + radius));
+        for (int row = row0; row <= row1; ++row) {
+            for (int col = col0; col <= col1; ++col) {
+                int cell = cellIndex(col, row);
+                for (int k = m_cellStart[cell]; k < m_cellStart[cell + 1]; ++k) {
+                    int i = m_cellTargets[k];
+                    double dx = m_x[i] - x;
+                    double dy = m_y[i] - y;
+                    if (dx * dx + dy * dy <= radius2 && count < out.length) {
+                        out[count++] = i;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(m_columns - 1, (int) Math.floor(x / kCellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(m_rows - 1, (int) Math.floor(y / kCellSize)));
+    }
+
+    private int cellIndex(int col, int row) {
+        return row * m_columns + col;
+    }
+}
@@ -10,11 +10,13 @@ import com.ctre.phoenix6.swerve.*;
 import com.ctre.phoenix6.swerve.SwerveModuleConstants.*;
 
 import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.units.measure.*;
 
 import frc.robot.subsystems.CommandSwerveDrivetrain;
+import frc.robot.subsystems.CommandSwerveDrivetrain.EstimatorBackend;
 
 // Generated by the Tuner X Swerve Project Generator
 // https://v6.docs.ctr-electronics.com/en/stable/docs/tuner/tuner-swerve/index.html
@@ -191,13 +193,32 @@ public class TunerConstants {
             kBackRightXPos, kBackRightYPos, kInvertRightSide, kBackRightSteerMotorInverted, kBackRightEncoderInverted
         );
 
+    /* 0 selects Phoenix's default; lockstep simulation paces on odometry, so it samples faster */
+    private static final double kOdometryFrequency =
+        CommandSwerveDrivetrain.kLockstepSim ? CommandSwerveDrivetrain.kLockstepOdometryFrequency : 0;
+
     /**
      * Creates a CommandSwerveDrivetrain instance.
      * This should only be called once in your robot program,.
      */
     public static CommandSwerveDrivetrain createDrivetrain() {
         return new CommandSwerveDrivetrain(
-            DrivetrainConstants, FrontLeft, FrontRight, BackLeft, BackRight
+            DrivetrainConstants, kOdometryFrequency, FrontLeft, FrontRight, BackLeft, BackRight
+        );
+    }
+
+    /**
+     * Creates a CommandSwerveDrivetrain instance that fuses vision with the given backend.
+     * Uses the default odometry frequency outside lockstep simulation and Phoenix's default
+     * standard deviations.
+     * This should only be called once in your robot program.
+     */
+    public static CommandSwerveDrivetrain createDrivetrain(EstimatorBackend estimatorBackend) {
+        return new CommandSwerveDrivetrain(
+            DrivetrainConstants, kOdometryFrequency,
+            VecBuilder.fill(0.1, 0.1, 0.1), VecBuilder.fill(0.9, 0.9, 0.9),
+            estimatorBackend,
+            FrontLeft, FrontRight, BackLeft, BackRight
         );
     }
 
@@ -0,0 +1,218 @@
+package frc.robot.pathfinding;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.path.Waypoint;
+import com.pathplanner.lib.pathfinding.Pathfinder;
+
+import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * PathPlanner {@link Pathfinder} over the deployed navgrid.json.
+ * <p>
+ * All planning happens on one background thread, so the pathfinding commands built by
+ * AutoBuilder never block the robot loop. For each goal the planner computes a cost-to-goal
+ * distance field over the inflated grid and keeps the most recent fields in a small cache;
+ * replanning to a cached goal from any start is then a walk down the field plus line-of-sight
+ * smoothing. Fields for goals known ahead of time can be built up front with {@link #precompute};
+ * those are kept for the static grid for the life of the pathfinder, and are used whenever no
+ * dynamic obstacles are set. Register with {@code Pathfinding.setPathfinder(...)}.
+ */
+public class GridPathfinder implements Pathfinder {
+    /* Distance fields kept, least recently used evicted first */
+    private static final int kCachedFields = 16;
+
+    private final NavGrid m_staticGrid;
+    private final ExecutorService m_worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Pathfinding");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /* Touched only on the worker thread */
+    private NavGrid m_grid;
+    /* Precomputed fields over the static grid, never evicted or cleared */
+    private final Map<Integer, float[]> m_staticFields = new HashMap<>();
+    /* Other fields over the current grid, cleared when the dynamic obstacles change */
+    private final Map<Integer, float[]> m_fields = new LinkedHashMap<>(kCachedFields, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, float[]> eldest) {
+            return size() > kCachedFields;
+        }
+    };
+
+    /* Request and result, shared between the robot loop and the worker */
+    private Translation2d m_start = new Translation2d();
+    private Translation2d m_goal = new Translation2d();
+    private List<Pair<Translation2d, Translation2d>> m_dynamicObstacles = List.of();
+    private long m_requestId = 0;
+    private volatile List<Translation2d> m_result = List.of();
+    private volatile boolean m_newPathAvailable = false;
+
+    /**
+     * Loads the deployed navigation grid.
+     *
+     * @param inflation Clearance to keep from obstacles beyond what the grid already has, in meters
+     * @throws IOException If navgrid.json cannot be read
+     */
+    public GridPathfinder(double inflation) throws IOException {
+        this(NavGrid.load(new File(Filesystem.getDeployDirectory(), "pathplanner/navgrid.json"), inflation));
+    }
+
+    /**
+     * Constructs a pathfinder over a grid.
+     *
+     * @param grid Navigation grid
+     */
+    public GridPathfinder(NavGrid grid) {
+        m_staticGrid = grid;
+        m_grid = grid;
+    }
+
+    /**
+     * Builds and caches the distance fields of goals the robot will commonly drive to,
+     * in the background.
+     *
+     * @param goals Goal positions
+     */
+    public void precompute(Translation2d... goals) {
+        for (Translation2d goal : goals) {
+            m_worker.execute(() -> {
+                int goalCell = m_staticGrid.nearestFreeCell(goal);
+                if (goalCell >= 0) {
+                    m_staticFields.computeIfAbsent(goalCell, m_staticGrid::distanceField);
+                }
+            });
+        }
+    }
+
+    @Override
+    public boolean isNewPathAvailable() {
+        return m_newPathAvailable;
+    }
+
+    @Override
+    public PathPlannerPath getCurrentPath(PathConstraints constraints, GoalEndState goalEndState) {
+        List<Translation2d> points;
+        synchronized (this) {
+            points = m_result;
+            m_newPathAvailable = false;
+        }
+        if (points.size() < 2) {
+            return null;
+        }
+
+        /* Each waypoint faces along the path so PathPlanner's bezier tangents follow it */
+        List<Pose2d> poses = new ArrayList<>(points.size());
+        for (int i = 0; i < points.size(); ++i) {
+            Translation2d from = points.get(Math.max(0, i - 1));
+            Translation2d to = points.get(Math.min(points.size() - 1, i + 1));
+            poses.add(new Pose2d(points.get(i), to.minus(from).getAngle()));
+        }
+        List<Waypoint> waypoints = PathPlannerPath.waypointsFromPoses(poses);
+        return new PathPlannerPath(waypoints, constraints, null, goalEndState);
+    }
+
+    @Override
+    public synchronized void setStartPosition(Translation2d startPosition) {
+        m_start = startPosition;
+        requestPlan();
+    }
+
+    @Override
+    public synchronized void setGoalPosition(Translation2d goalPosition) {
+        m_goal = goalPosition;
+        requestPlan();
+    }
+
+    @Override
+    public synchronized void setDynamicObstacles(
+            List<Pair<Translation2d, Translation2d>> obs, Translation2d currentRobotPos) {
+        m_dynamicObstacles = List.copyOf(obs);
+        m_start = currentRobotPos;
+        final List<Pair<Translation2d, Translation2d>> obstacles = m_dynamicObstacles;
+        m_worker.execute(() -> {
+            m_grid = obstacles.isEmpty() ? m_staticGrid : m_staticGrid.withDynamicObstacles(obstacles);
+            m_fields.clear();
+        });
+        requestPlan();
+    }
+
+    /*
+     * Queues a plan for the current request; stale plans are skipped once a newer one is queued.
+     * Called with the lock held. The previous result is dropped so a path to the old start or
+     * goal is never handed out after the request changed.
+     */
+    private void requestPlan() {
+        final long id = ++m_requestId;
+        m_result = List.of();
+        m_newPathAvailable = false;
+        final Translation2d start = m_start;
+        final Translation2d goal = m_goal;
+        m_worker.execute(() -> {
+            synchronized (this) {
+                if (id != m_requestId) {
+                    return;
+                }
+            }
+            List<Translation2d> path = plan(start, goal);
+            synchronized (this) {
+                if (id == m_requestId) {
+                    m_result = path;
+                    m_newPathAvailable = true;
+                }
+            }
+        });
+    }
+
+    /* Worker thread */
+    private List<Translation2d> plan(Translation2d start, Translation2d goal) {
+        int startCell = m_grid.nearestFreeCell(start);
+        int goalCell = m_grid.nearestFreeCell(goal);
+        if (startCell < 0 || goalCell < 0) {
+            return List.of();
+        }
+        List<Integer> cells = m_grid.descend(fieldFor(goalCell), startCell);
+        if (cells.isEmpty()) {
+            return List.of();
+        }
+
+        /* The exact start and goal replace the centers of their cells */
+        List<Translation2d> points = new ArrayList<>(cells.size() + 1);
+        points.add(start);
+        for (int i = 1; i < cells.size() - 1; ++i) {
+            points.add(m_grid.center(cells.get(i)));
+        }
+        points.add(goal);
+        return points;
+    }
+
+    /* Worker thread */
+    private float[] fieldFor(int goalCell) {
+        if (goalCell < 0) {
+            return null;
+        }
+        if (m_grid == m_staticGrid) {
+            float[] field = m_staticFields.get(goalCell);
+            if (field != null) {
+                return field;
+            }
+        }
+        return m_fields.computeIfAbsent(goalCell, m_grid::distanceField);
+    }
+}
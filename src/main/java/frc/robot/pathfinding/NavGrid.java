@@ -0,0 +1,305 @@
+package frc.robot.pathfinding;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * The PathPlanner navigation grid, with obstacles inflated by a clearance margin.
+ * <p>
+ * Provides the grid operations the pathfinder needs: converting between field positions and
+ * cells, line-of-sight checks, cost-to-goal distance fields over the 8-connected grid, and
+ * following a distance field downhill into an any-angle path. Instances are immutable apart
+ * from {@link #withDynamicObstacles}, which returns a new grid.
+ */
+public class NavGrid {
+    private static final double kSqrt2 = Math.sqrt(2);
+    private static final int[] kNeighborDx = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] kNeighborDy = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    private final double m_nodeSize;
+    private final int m_width;
+    private final int m_height;
+    /* Static obstacles as loaded, before inflation */
+    private final boolean[] m_obstacles;
+    private final double m_inflation;
+    /* Obstacles after inflation, indexed y * width + x */
+    private final boolean[] m_blocked;
+
+    private NavGrid(double nodeSize, int width, int height, boolean[] obstacles, double inflation) {
+        m_nodeSize = nodeSize;
+        m_width = width;
+        m_height = height;
+        m_obstacles = obstacles;
+        m_inflation = inflation;
+        m_blocked = inflate(obstacles, inflation);
+    }
+
+    /**
+     * Loads a grid written by the PathPlanner GUI.
+     *
+     * @param file      navgrid.json
+     * @param inflation Extra clearance to keep from obstacles, in meters
+     * @return The grid
+     * @throws IOException If the file cannot be read or parsed
+     */
+    public static NavGrid load(File file, double inflation) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(file);
+        double nodeSize = root.get("nodeSizeMeters").asDouble();
+        JsonNode grid = root.get("grid");
+        int height = grid.size();
+        int width = height > 0 ? grid.get(0).size() : 0;
+        if (width == 0 || nodeSize <= 0) {
+            throw new IOException("Empty navigation grid in " + file);
+        }
+        boolean[] obstacles = new boolean[width * height];
+        for (int y = 0; y < height; ++y) {
+            JsonNode row = grid.get(y);
+            for (int x = 0; x < width && x < row.size(); ++x) {
+                obstacles[y * width + x] = row.get(x).asBoolean();
+            }
+        }
+        return new NavGrid(nodeSize, width, height, obstacles, inflation);
+    }
+
+    /**
+     * Returns a copy of this grid with extra obstacles, inflated like the static ones.
+     *
+     * @param boxes Obstacles as pairs of opposite corners, in field coordinates
+     * @return New grid
+     */
+    public NavGrid withDynamicObstacles(List<Pair<Translation2d, Translation2d>> boxes) {
+        boolean[] obstacles = m_obstacles.clone();
+        for (var box : boxes) {
+            int x0 = clampX(toCell(Math.min(box.getFirst().getX(), box.getSecond().getX())));
+            int x1 = clampX(toCell(Math.max(box.getFirst().getX(), box.getSecond().getX())));
+            int y0 = clampY(toCell(Math.min(box.getFirst().getY(), box.getSecond().getY())));
+            int y1 = clampY(toCell(Math.max(box.getFirst().getY(), box.getSecond().getY())));
+            for (int y = y0; y <= y1; ++y) {
+                for (int x = x0; x <= x1; ++x) {
+                    obstacles[y * m_width + x] = true;
+                }
+            }
+        }
+        return new NavGrid(m_nodeSize, m_width, m_height, obstacles, m_inflation);
+    }
+
+    /** @return Number of cells */
+    public int getCellCount() {
+        return m_width * m_height;
+    }
+
+    /**
+     * @param position Field position
+     * @return Index of the nearest free cell, or -1 if the grid has none
+     */
+    public int nearestFreeCell(Translation2d position) {
+        int start = clampY(toCell(position.getY())) * m_width + clampX(toCell(position.getX()));
+        if (!m_blocked[start]) {
+            return start;
+        }
+        /* Breadth-first outward until a free cell turns up */
+        boolean[] seen = new boolean[m_blocked.length];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+        seen[start] = true;
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            if (!m_blocked[cell]) {
+                return cell;
+            }
+            for (int n = 0; n < 4; ++n) {
+                int x = cell % m_width + kNeighborDx[n];
+                int y = cell / m_width + kNeighborDy[n];
+                if (inBounds(x, y) && !seen[y * m_width + x]) {
+                    seen[y * m_width + x] = true;
+                    queue.add(y * m_width + x);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param cell Cell index
+     * @return Field position of the cell's center
+     */
+    public Translation2d center(int cell) {
+        return new Translation2d((cell % m_width + 0.5) * m_nodeSize, (cell / m_width + 0.5) * m_nodeSize);
+    }
+
+    /**
+     * Computes the cost to reach the goal from every cell with Dijkstra over the 8-connected
+     * grid, never cutting the corner of a blocked cell.
+     *
+     * @param goal Goal cell index
+     * @return Cost to goal of every cell in meters, infinite where the goal is unreachable
+     */
+    public float[] distanceField(int goal) {
+        float[] cost = new float[m_blocked.length];
+        Arrays.fill(cost, Float.POSITIVE_INFINITY);
+        cost[goal] = 0;
+        /* Non-negative floats order like their bits, so pack (cost, cell) into one long */
+        PriorityQueue<Long> open = new PriorityQueue<>();
+        open.add((long) Float.floatToIntBits(0f) << 32 | goal);
+        while (!open.isEmpty()) {
+            long entry = open.poll();
+            int cell = (int) entry;
+            float cellCost = Float.intBitsToFloat((int) (entry >>> 32));
+            if (cellCost > cost[cell]) {
+                continue;
+            }
+            int cx = cell % m_width;
+            int cy = cell / m_width;
+            for (int n = 0; n < 8; ++n) {
+                int x = cx + kNeighborDx[n];
+                int y = cy + kNeighborDy[n];
+                if (!canStep(cx, cy, x, y)) {
+                    continue;
+                }
+                int next = y * m_width + x;
+                float nextCost = cellCost + (float) (n < 4 ? m_nodeSize : m_nodeSize * kSqrt2);
+                if (nextCost < cost[next]) {
+                    cost[next] = nextCost;
+                    open.add((long) Float.floatToIntBits(nextCost) << 32 | next);
+                }
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Follows a distance field downhill from the start cell to its goal, then shortens the cell
+     * path into an any-angle path by keeping only the cells that break line of sight, in the
+     * manner of Theta*.
+     *
+     * @param field Distance field from {@link #distanceField(int)}
+     * @param start Start cell index
+     * @return Cell indices from start to goal, or an empty list if the goal is unreachable
+     */
+    public List<Integer> descend(float[] field, int start) {
+        List<Integer> cells = new ArrayList<>();
+        if (Float.isInfinite(field[start])) {
+            return cells;
+        }
+        int cell = start;
+        cells.add(cell);
+        while (field[cell] > 0) {
+            int cx = cell % m_width;
+            int cy = cell / m_width;
+            int best = -1;
+            float bestCost = field[cell];
+            for (int n = 0; n < 8; ++n) {
+                int x = cx + kNeighborDx[n];
+                int y = cy + kNeighborDy[n];
+                if (canStep(cx, cy, x, y) && field[y * m_width + x] < bestCost) {
+                    best = y * m_width + x;
+                    bestCost = field[best];
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            cell = best;
+            cells.add(cell);
+        }
+
+        List<Integer> smoothed = new ArrayList<>();
+        smoothed.add(cells.get(0));
+        int anchor = 0;
+        for (int i = 2; i < cells.size(); ++i) {
+            if (!lineOfSight(cells.get(anchor), cells.get(i))) {
+                anchor = i - 1;
+                smoothed.add(cells.get(anchor));
+            }
+        }
+        if (cells.size() > 1) {
+            smoothed.add(cells.get(cells.size() - 1));
+        }
+        return smoothed;
+    }
+
+    /**
+     * Checks that the straight segment between two cell centers crosses no blocked cell,
+     * by sampling it at a quarter of the node size.
+     *
+     * @param from Cell index
+     * @param to   Cell index
+     * @return True if the segment is clear
+     */
+    public boolean lineOfSight(int from, int to) {
+        double x0 = from % m_width + 0.5;
+        double y0 = from / m_width + 0.5;
+        double x1 = to % m_width + 0.5;
+        double y1 = to / m_width + 0.5;
+        int steps = (int) Math.ceil(Math.hypot(x1 - x0, y1 - y0) * 4);
+        for (int i = 1; i < steps; ++i) {
+            double t = (double) i / steps;
+            int x = (int) (x0 + (x1 - x0) * t);
+            int y = (int) (y0 + (y1 - y0) * t);
+            if (m_blocked[y * m_width + x]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean canStep(int fromX, int fromY, int x, int y) {
+        if (!inBounds(x, y) || m_blocked[y * m_width + x]) {
+            return false;
+        }
+        /* A diagonal step needs both side cells free so it does not clip a corner */
+        return fromX == x || fromY == y
+            || (!m_blocked[fromY * m_width + x] && !m_blocked[y * m_width + fromX]);
+    }
+
+    /* Marks every cell within the inflation distance of an obstacle as blocked */
+    private boolean[] inflate(boolean[] obstacles, double inflation) {
+        int radius = (int) Math.ceil(inflation / m_nodeSize);
+        if (radius <= 0) {
+            return obstacles.clone();
+        }
+        boolean[] blocked = obstacles.clone();
+        for (int cell = 0; cell < obstacles.length; ++cell) {
+            if (!obstacles[cell]) {
+                continue;
+            }
+            int cx = cell % m_width;
+            int cy = cell / m_width;
+            for (int dy = -radius; dy <= radius; ++dy) {
+                for (int dx = -radius; dx <= radius; ++dx) {
+                    if (dx * dx + dy * dy <= radius * radius && inBounds(cx + dx, cy + dy)) {
+                        blocked[(cy + dy) * m_width + cx + dx] = true;
+                    }
+                }
+            }
+        }
+        return blocked;
+    }
+
+    private int toCell(double meters) {
+        return (int) Math.floor(meters / m_nodeSize);
+    }
+
+    private int clampX(int x) {
+        return Math.max(0, Math.min(m_width - 1, x));
+    }
+
+    private int clampY(int y) {
+        return Math.max(0, Math.min(m_height - 1, y));
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < m_width && y < m_height;
+    }
+}
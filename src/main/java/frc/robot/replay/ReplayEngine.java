@@ -0,0 +1,303 @@
+package frc.robot.replay;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+
+import frc.robot.LimelightHelpers;
+import frc.robot.LimelightHelpers.PoseEstimate;
+import frc.robot.generated.TunerConstants;
+import frc.robot.subsystems.CommandSwerveDrivetrain;
+import frc.robot.vision.CameraArbiter;
+import frc.robot.vision.VisionFusion;
+import frc.robot.vision.VisionIngestor;
+import frc.robot.vision.VisionMeasurement;
+import frc.robot.vision.VisionMeasurementQueue;
+import frc.robot.vision.VisionThread;
+
+/**
+ * Replays a recorded robot data log through pose estimation and vision fusion, off-robot and
+ * as fast as the log can be read.
+ * <p>
+ * Odometry samples drive a {@link SwerveDrivePoseEstimator} built from the module locations in
+ * {@link TunerConstants}. Logged pose resets are applied at their timestamps, and a reset logged
+ * before odometry starts seeds the estimator. Limelight samples are grouped into cycles of the vision thread period
+ * and go through the same {@link VisionFusion} and {@link CameraArbiter} stages as on the robot,
+ * then are applied the way CommandSwerveDrivetrain drains its vision queue. Everything is keyed
+ * off log timestamps, so the same log always produces the same trajectory.
+ * <p>
+ * Usage: {@code ReplayEngine <input.wpilog> <output.csv> [camera ...]}
+ */
+public class ReplayEngine {
+    /* Sources of odometry and pose reset events; camera events use the camera index */
+    private static final int kOdometrySource = -1;
+    private static final int kPoseResetSource = -2;
+    /* Vision samples are grouped into cycles of the vision thread period, in microseconds */
+    private static final long kCyclePeriod = (long) (VisionThread.kPeriod * 1e6);
+
+    private static final String[] kDefaultCameras = {"limelight", "limelight-front"};
+
+    private static final class Event {
+        final long timestamp;
+        final int source;
+        final double[] data;
+
+        Event(long timestamp, int source, double[] data) {
+            this.timestamp = timestamp;
+            this.source = source;
+            this.data = data;
+        }
+    }
+
+    private final String[] m_cameraNames;
+    private final SwerveDriveKinematics m_kinematics;
+    private final SwerveModulePosition[] m_positions;
+    private final VisionFusion m_fusion = new VisionFusion(CommandSwerveDrivetrain.kVisionHardResetDistance);
+    private final CameraArbiter m_arbiter;
+    private final VisionMeasurementQueue m_queue = new VisionMeasurementQueue(CommandSwerveDrivetrain.kVisionQueueCapacity);
+    private final PoseEstimate m_estimate = new PoseEstimate(VisionIngestor.kMaxFiducials);
+    private SwerveDrivePoseEstimator m_estimator;
+    /* Pose the estimator starts from, updated by resets logged before odometry starts */
+    private double m_seedX = 0;
+    private double m_seedY = 0;
+    private double m_seedHeading = 0;
+
+    private double m_omegaRadPerSec = 0;
+    private long m_cycleStart = Long.MIN_VALUE;
+    private int m_visionFrames = 0;
+    private int m_visionApplied = 0;
+    private int m_hardResets = 0;
+    private int m_poseResets = 0;
+
+    /**
+     * Constructs a replay engine for the robot's drivetrain.
+     *
+     * @param cameraNames NetworkTables names of the Limelights to replay, in vision thread order
+     */
+    public ReplayEngine(String... cameraNames) {
+        m_cameraNames = cameraNames;
+        m_kinematics = new SwerveDriveKinematics(
+            new Translation2d(TunerConstants.FrontLeft.LocationX, TunerConstants.FrontLeft.LocationY),
+            new Translation2d(TunerConstants.FrontRight.LocationX, TunerConstants.FrontRight.LocationY),
+            new Translation2d(TunerConstants.BackLeft.LocationX, TunerConstants.BackLeft.LocationY),
+            new Translation2d(TunerConstants.BackRight.LocationX, TunerConstants.BackRight.LocationY)
+        );
+        m_positions = new SwerveModulePosition[4];
+        for (int i = 0; i < m_positions.length; ++i) {
+            m_positions[i] = new SwerveModulePosition();
+        }
+        m_arbiter = new CameraArbiter(
+            cameraNames, cameraNames.length * VisionIngestor.kQueueDepth, VisionThread.maxPublishedPerCycle(m_queue)
+        );
+    }
+
+    /**
+     * Replays a data log and writes the estimated trajectory as CSV, one row per odometry sample.
+     *
+     * @param log    Data log to replay
+     * @param output Trajectory CSV to write
+     * @throws IOException If the log cannot be read or the output cannot be written
+     */
+    public void run(Path log, Path output) throws IOException {
+        DataLogReader reader = new DataLogReader(log.toString());
+        if (!reader.isValid()) {
+            throw new IOException("Not a valid data log: " + log);
+        }
+
+        List<Event> events = readEvents(reader);
+
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (PrintWriter csv = new PrintWriter(new BufferedWriter(Files.newBufferedWriter(output)))) {
+            csv.println("timestamp,x,y,heading_deg,vision_applied");
+            for (Event event : events) {
+                if (m_cycleStart != Long.MIN_VALUE && event.timestamp >= m_cycleStart + kCyclePeriod) {
+                    /* The vision thread would have finished this cycle by now */
+                    flushVisionCycle();
+                }
+                if (event.source == kOdometrySource) {
+                    int applied = m_visionApplied;
+                    updateOdometry(event);
+                    Pose2d pose = m_estimator.getEstimatedPosition();
+                    csv.printf("%.6f,%.4f,%.4f,%.3f,%d%n",
+                        event.timestamp / 1e6, pose.getX(), pose.getY(), pose.getRotation().getDegrees(),
+                        m_visionApplied - applied);
+                } else if (event.source == kPoseResetSource) {
+                    resetPose(event);
+                } else {
+                    addVision(event);
+                }
+            }
+            flushVisionCycle();
+        }
+    }
+
+    /* Collects the odometry and Limelight records, ordered by timestamp */
+    private List<Event> readEvents(DataLogReader reader) {
+        Map<Integer, Integer> sources = new HashMap<>();
+        List<Event> events = new ArrayList<>();
+        int odometryLength = ReplayLog.odometryLength(m_positions.length);
+
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                DataLogRecord.StartRecordData start = record.getStartData();
+                if (start.name.equals(ReplayLog.kOdometryEntry)) {
+                    sources.put(start.entry, kOdometrySource);
+                }
+                if (start.name.equals(ReplayLog.kPoseResetEntry)) {
+                    sources.put(start.entry, kPoseResetSource);
+                }
+                for (int i = 0; i < m_cameraNames.length; ++i) {
+                    if (start.name.equals(ReplayLog.megaTag2Entry(m_cameraNames[i]))) {
+                        sources.put(start.entry, i);
+                    }
+                }
+            } else if (!record.isControl()) {
+                Integer source = sources.get(record.getEntry());
+                if (source == null) {
+                    continue;
+                }
+                double[] data = record.getDoubleArray();
+                if (source == kOdometrySource && data.length < odometryLength) {
+                    continue;
+                }
+                if (source == kPoseResetSource && data.length < ReplayLog.kPoseResetLength) {
+                    continue;
+                }
+                events.add(new Event(record.getTimestamp(), source, data));
+            }
+        }
+
+        /* Stable sort, so records with equal timestamps keep their log order */
+        events.sort(Comparator.comparingLong(e -> e.timestamp));
+        return events;
+    }
+
+    private void updateOdometry(Event event) {
+        double[] data = event.data;
+        for (int i = 0; i < m_positions.length; ++i) {
+            m_positions[i].distanceMeters = data[ReplayLog.kFirstModule + 2 * i];
+            m_positions[i].angle = new Rotation2d(data[ReplayLog.kFirstModule + 2 * i + 1]);
+        }
+        Rotation2d heading = new Rotation2d(data[ReplayLog.kRawHeading]);
+        m_omegaRadPerSec = data[ReplayLog.kOmega];
+
+        if (m_estimator == null) {
+            m_estimator = new SwerveDrivePoseEstimator(
+                m_kinematics, heading, m_positions, new Pose2d(m_seedX, m_seedY, new Rotation2d(m_seedHeading))
+            );
+        }
+        m_estimator.updateWithTime(event.timestamp / 1e6, heading, m_positions);
+    }
+
+    /* Applies a logged reset, keeping whichever components the reset left unchanged (NaN) */
+    private void resetPose(Event event) {
+        double x = event.data[ReplayLog.kResetX];
+        double y = event.data[ReplayLog.kResetY];
+        double heading = event.data[ReplayLog.kResetHeading];
+        ++m_poseResets;
+        if (m_estimator == null) {
+            if (!Double.isNaN(x)) {
+                m_seedX = x;
+            }
+            if (!Double.isNaN(y)) {
+                m_seedY = y;
+            }
+            if (!Double.isNaN(heading)) {
+                m_seedHeading = heading;
+            }
+            return;
+        }
+        Pose2d pose = m_estimator.getEstimatedPosition();
+        m_estimator.resetPose(new Pose2d(
+            Double.isNaN(x) ? pose.getX() : x,
+            Double.isNaN(y) ? pose.getY() : y,
+            Double.isNaN(heading) ? pose.getRotation() : new Rotation2d(heading)
+        ));
+    }
+
+    private void addVision(Event event) {
+        if (m_estimator == null) {
+            /* Nothing to fuse into until odometry starts */
+            return;
+        }
+        if (m_cycleStart == Long.MIN_VALUE) {
+            m_cycleStart = event.timestamp;
+            m_arbiter.begin(m_omegaRadPerSec);
+        }
+
+        if (!LimelightHelpers.decodeBotPoseEstimateInto(event.data, event.timestamp, true, m_estimate)) {
+            return;
+        }
+        ++m_visionFrames;
+        /* Same rate gate as the vision thread */
+        if (Math.abs(Units.radiansToRotations(m_omegaRadPerSec)) >= VisionThread.kMaxAngularRateRps) {
+            return;
+        }
+        m_arbiter.offer(event.source, m_estimate, m_fusion);
+    }
+
+    /* Mirrors CommandSwerveDrivetrain.drainVisionMeasurements against the replay estimator */
+    private void flushVisionCycle() {
+        if (m_cycleStart == Long.MIN_VALUE) {
+            return;
+        }
+        m_arbiter.flush(m_queue);
+
+        VisionMeasurement measurement;
+        while ((measurement = m_queue.peek()) != null) {
+            Pose2d estimatedPose = m_estimator.getEstimatedPosition();
+            if (m_fusion.shouldHardReset(measurement, estimatedPose)) {
+                m_estimator.resetPose(new Pose2d(measurement.x, measurement.y, estimatedPose.getRotation()));
+                ++m_hardResets;
+            } else {
+                m_estimator.addVisionMeasurement(
+                    new Pose2d(measurement.x, measurement.y, new Rotation2d(measurement.yawRadians)),
+                    measurement.timestampSeconds,
+                    VecBuilder.fill(measurement.stdDevX, measurement.stdDevY, measurement.stdDevTheta)
+                );
+            }
+            ++m_visionApplied;
+            m_queue.release();
+        }
+        m_cycleStart = Long.MIN_VALUE;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ReplayEngine <input.wpilog> <output.csv> [camera ...]");
+            System.exit(1);
+        }
+        String[] cameras = args.length > 2 ? Arrays.copyOfRange(args, 2, args.length) : kDefaultCameras;
+
+        ReplayEngine engine = new ReplayEngine(cameras);
+        long start = System.nanoTime();
+        engine.run(Path.of(args[0]), Path.of(args[1]));
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Replayed %s in %.2f s: %d vision frames, %d applied, %d hard resets, %d pose resets -> %s%n",
+            args[0], elapsed, engine.m_visionFrames, engine.m_visionApplied, engine.m_hardResets,
+            engine.m_poseResets, args[1]);
+        System.exit(0);
+    }
+}
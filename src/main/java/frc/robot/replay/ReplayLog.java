@@ -0,0 +1,82 @@
+package frc.robot.replay;
+
+import edu.wpi.first.util.datalog.DataLog;
+
+/**
+ * Names and layouts of the data log entries the replay engine reads.
+ * <p>
+ * Odometry is recorded by {@link frc.robot.Telemetry} as one double array per odometry
+ * sample, timestamped with the FPGA time of the sample. Pose resets requested from outside
+ * the drivetrain (auto seeding, field-centric seeding) are recorded by
+ * {@link frc.robot.subsystems.CommandSwerveDrivetrain} when they happen. Limelight results are captured by
+ * DataLogManager's NetworkTables logging, which stores every update of every topic.
+ * <p>
+ * Nothing is recorded until {@link #start(DataLog)} is called, so programs that never start
+ * logging (tests, benchmarks, auto evaluation) do not write a log file.
+ */
+public final class ReplayLog {
+    /** Odometry entry, one record per odometry sample */
+    public static final String kOdometryEntry = "Replay/Odometry";
+
+    /** Index of the raw gyro heading in an odometry record, in radians */
+    public static final int kRawHeading = 0;
+    /** Index of the robot angular rate in an odometry record, in radians per second */
+    public static final int kOmega = 1;
+    /** Index of the first module position; each module is [distance meters, angle radians] */
+    public static final int kFirstModule = 2;
+
+    /** Pose reset entry, one record of [x meters, y meters, heading radians] per reset */
+    public static final String kPoseResetEntry = "Replay/PoseReset";
+
+    /** Index of the reset X in a pose reset record, NaN if the reset keeps X */
+    public static final int kResetX = 0;
+    /** Index of the reset Y in a pose reset record, NaN if the reset keeps Y */
+    public static final int kResetY = 1;
+    /** Index of the reset heading in a pose reset record, NaN if the reset keeps the heading */
+    public static final int kResetHeading = 2;
+    /** Length of a pose reset record */
+    public static final int kPoseResetLength = 3;
+
+    /** Prefix DataLogManager puts on NetworkTables topics */
+    public static final String kNetworkTablesPrefix = "NT:/";
+    /** Limelight topic holding the MegaTag2 pose in blue alliance coordinates */
+    public static final String kMegaTag2Topic = "/botpose_orb_wpiblue";
+
+    /* Set once the robot program has started logging */
+    private static volatile DataLog s_log = null;
+
+    private ReplayLog() {}
+
+    /**
+     * Starts recording the replay entries to a log. Call once the robot program has started
+     * its data log.
+     *
+     * @param log Log to record to
+     */
+    public static void start(DataLog log) {
+        s_log = log;
+    }
+
+    /**
+     * @return Log to record the replay entries to, or null if recording has not started
+     */
+    public static DataLog getLog() {
+        return s_log;
+    }
+
+    /**
+     * @param moduleCount Number of swerve modules
+     * @return Length of an odometry record
+     */
+    public static int odometryLength(int moduleCount) {
+        return kFirstModule + 2 * moduleCount;
+    }
+
+    /**
+     * @param cameraName NetworkTables name of the Limelight
+     * @return Data log entry name of its MegaTag2 topic
+     */
+    public static String megaTag2Entry(String cameraName) {
+        return kNetworkTablesPrefix + cameraName + kMegaTag2Topic;
+    }
+}
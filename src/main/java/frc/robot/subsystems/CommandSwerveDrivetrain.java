@@ -2,10 +2,13 @@ package frc.robot.subsystems;
 
 import static edu.wpi.first.units.Units.*;
 
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import com.ctre.phoenix6.SignalLogger;
 import com.ctre.phoenix6.Utils;
+import com.ctre.phoenix6.swerve.SwerveDrivetrain.SwerveDriveState;
 import com.ctre.phoenix6.swerve.SwerveDrivetrainConstants;
 import com.ctre.phoenix6.swerve.SwerveModuleConstants;
 import com.ctre.phoenix6.swerve.SwerveRequest;
@@ -16,19 +19,36 @@ import com.pathplanner.lib.config.RobotConfig;
 import com.pathplanner.lib.controllers.PPHolonomicDriveController;
 
 import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Subsystem;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 
 import frc.robot.generated.TunerConstants.TunerSwerveDrivetrain;
+import frc.robot.replay.ReplayLog;
+import frc.robot.trajectory.CachedTrajectory;
+import frc.robot.trajectory.DriveToPoseCommand;
+import frc.robot.trajectory.FollowCachedTrajectoryCommand;
+import frc.robot.trajectory.TrajectoryCache;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.PoseHistory;
+import frc.robot.vision.FastPoseEstimator;
+import frc.robot.vision.VisionFusion;
+import frc.robot.vision.VisionMeasurement;
+import frc.robot.vision.VisionMeasurementQueue;
 
 /**
  * Class that extends the Phoenix 6 SwerveDrivetrain class and implements
@@ -39,6 +59,25 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
     private Notifier m_simNotifier = null;
     private double m_lastSimTime;
 
+    /**
+     * When set (FRC_SIM_LOCKSTEP=true), simulation runs on simulated time in fixed steps,
+     * paced by odometry rather than the wall clock; see {@link #startLockstepSim()}.
+     */
+    public static final boolean kLockstepSim = Boolean.parseBoolean(System.getenv("FRC_SIM_LOCKSTEP"));
+    /** Odometry frequency in lockstep simulation, so pacing on odometry stays ahead of real time */
+    public static final double kLockstepOdometryFrequency = 1000;
+    /*
+     * Fresh odometry samples to wait for after each physics step. The first may have been read
+     * before the simulated devices published the new state; the second was not.
+     */
+    private static final int kLockstepOdometrySamples = 2;
+    /* Steps on without odometry after this long, so a stalled odometry thread cannot hang the sim */
+    private static final long kLockstepOdometryTimeoutNanos = 100_000_000L;
+    private Thread m_lockstepThread = null;
+    /* Successful odometry samples so far, only counted in lockstep simulation */
+    private final Object m_odometrySampleLock = new Object();
+    private int m_odometrySamples = 0;
+
     /* Blue alliance sees forward as 0 degrees (toward red alliance wall) */
     private static final Rotation2d kBlueAlliancePerspectiveRotation = Rotation2d.kZero;
     /* Red alliance sees forward as 180 degrees (toward blue alliance wall) */
@@ -46,6 +85,53 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
     /* Keep track if we've ever applied the operator perspective before or not */
     private boolean m_hasAppliedOperatorPerspective = false;
 
+    /** PID constants of the path following controller for translation */
+    public static final PIDConstants kPathTranslationPID = new PIDConstants(10, 0, 0);
+    /** PID constants of the path following controller for rotation */
+    public static final PIDConstants kPathRotationPID = new PIDConstants(7, 0, 0);
+
+    /* Drive-to-pose limits and arrival tolerances */
+    private static final TrapezoidProfile.Constraints kDriveToPoseTranslation = new TrapezoidProfile.Constraints(3.0, 3.0);
+    private static final TrapezoidProfile.Constraints kDriveToPoseRotation =
+        new TrapezoidProfile.Constraints(2 * Math.PI, 4 * Math.PI);
+    private static final double kDriveToPoseTranslationTolerance = 0.02;
+    private static final double kDriveToPoseHeadingTolerance = Math.toRadians(1.0);
+
+    /* Vision diverging from the estimate by more than this hard resets the pose, in meters */
+    public static final double kVisionHardResetDistance = 1.0;
+
+    /** Slots in the vision measurement queue; the vision thread caps what it publishes to fit */
+    public static final int kVisionQueueCapacity = 32;
+    /* Vision measurements handed over from the vision thread, drained in periodic() */
+    private final VisionMeasurementQueue m_visionMeasurements = new VisionMeasurementQueue(kVisionQueueCapacity);
+    private final VisionFusion m_visionFusion = new VisionFusion(kVisionHardResetDistance);
+    /* Reused for every measurement; the estimator copies the values it is given */
+    private final Matrix<N3, N1> m_visionStdDevs = VecBuilder.fill(0, 0, 0);
+
+    /*
+     * Pose resets requested from outside the drivetrain, read back by the replay engine.
+     * Created once the robot starts logging.
+     */
+    private DoubleArrayLogEntry m_poseResetLog = null;
+
+    /* About two seconds of odometry at 250 Hz */
+    private static final int kPoseHistoryCapacity = 512;
+    private final PoseHistory m_poseHistory = new PoseHistory(kPoseHistoryCapacity);
+
+    /** Where vision measurements are fused into the pose estimate */
+    public enum EstimatorBackend {
+        /** Phoenix's built-in Kalman filter, which replays buffered odometry for every measurement */
+        PHOENIX,
+        /** {@link FastPoseEstimator}: a per-axis correction kept as an offset on top of odometry */
+        FAST
+    }
+
+    /* Only set with the FAST backend */
+    private FastPoseEstimator m_fastEstimator = null;
+
+    private final LoopProfiler.Section m_periodicTiming = LoopProfiler.section("CommandSwerveDrivetrain.periodic");
+    private final LoopProfiler.Section m_visionDrainTiming = LoopProfiler.section("VisionDrain");
+
     /** Swerve request to apply during robot-centric path following */
     private final SwerveRequest.ApplyRobotSpeeds m_pathApplyRobotSpeeds = new SwerveRequest.ApplyRobotSpeeds();
 
@@ -135,6 +221,7 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
             startSimThread();
         }
         configureAutoBuilder();
+        registerTelemetry(null);
     }
 
     /**
@@ -160,6 +247,7 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
             startSimThread();
         }
         configureAutoBuilder();
+        registerTelemetry(null);
     }
 
     /**
@@ -193,13 +281,58 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
             startSimThread();
         }
         configureAutoBuilder();
+        registerTelemetry(null);
+    }
+
+    /**
+     * Constructs a CTRE SwerveDrivetrain using the specified constants and pose estimator backend.
+     * <p>
+     * This constructs the underlying hardware devices, so users should not construct
+     * the devices themselves. If they need the devices, they can access them through
+     * getters in the classes.
+     *
+     * @param drivetrainConstants        Drivetrain-wide constants for the swerve drive
+     * @param odometryUpdateFrequency    The frequency to run the odometry loop. If
+     *                                   unspecified or set to 0 Hz, this is 250 Hz on
+     *                                   CAN FD, and 100 Hz on CAN 2.0.
+     * @param odometryStandardDeviation  The standard deviation for odometry calculation
+     *                                  in the form [x, y, theta]ᵀ, with units in meters
+     *                                  and radians
+     * @param visionStandardDeviation   The standard deviation for vision calculation
+     *                                  in the form [x, y, theta]ᵀ, with units in meters
+     *                                  and radians
+     * @param estimatorBackend          Where vision measurements are fused
+     * @param modules                    Constants for each specific module
+     */
+    public CommandSwerveDrivetrain(
+        SwerveDrivetrainConstants drivetrainConstants,
+        double odometryUpdateFrequency,
+        Matrix<N3, N1> odometryStandardDeviation,
+        Matrix<N3, N1> visionStandardDeviation,
+        EstimatorBackend estimatorBackend,
+        SwerveModuleConstants<?, ?, ?>... modules
+    ) {
+        super(drivetrainConstants, odometryUpdateFrequency, odometryStandardDeviation, visionStandardDeviation, modules);
+        if (estimatorBackend == EstimatorBackend.FAST) {
+            m_fastEstimator = new FastPoseEstimator(
+                m_poseHistory,
+                odometryStandardDeviation.get(0, 0),
+                odometryStandardDeviation.get(1, 0),
+                odometryStandardDeviation.get(2, 0)
+            );
+        }
+        if (Utils.isSimulation()) {
+            startSimThread();
+        }
+        configureAutoBuilder();
+        registerTelemetry(null);
     }
 
     private void configureAutoBuilder() {
         try {
             var config = RobotConfig.fromGUISettings();
             AutoBuilder.configure(
-                () -> getState().Pose,   // Supplier of current robot pose
+                this::getPose,           // Supplier of current robot pose
                 this::resetPose,         // Consumer for seeding pose against auto
                 () -> getState().Speeds, // Supplier of current robot speeds
                 // Consumer of ChassisSpeeds and feedforwards to drive the robot
@@ -210,9 +343,9 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
                 ),
                 new PPHolonomicDriveController(
                     // PID constants for translation
-                    new PIDConstants(10, 0, 0),
+                    kPathTranslationPID,
                     // PID constants for rotation
-                    new PIDConstants(7, 0, 0)
+                    kPathRotationPID
                 ),
                 config,
                 // Assume the path needs to be flipped for Red vs Blue, this is normally the case
@@ -260,6 +393,7 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
 
     @Override
     public void periodic() {
+        m_periodicTiming.start();
         /*
          * Periodically try to apply the operator perspective.
          * If we haven't applied the operator perspective before, then we should apply it regardless of DS state.
@@ -277,9 +411,178 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
                 m_hasAppliedOperatorPerspective = true;
             });
         }
+
+        m_visionDrainTiming.start();
+        drainVisionMeasurements();
+        m_visionDrainTiming.stop();
+
+        m_periodicTiming.stop();
+    }
+
+    /**
+     * Returns a command that follows a pregenerated trajectory from the {@link TrajectoryCache}.
+     *
+     * @param trajectory Trajectory to follow
+     * @return Command to run
+     */
+    public Command followCachedTrajectory(CachedTrajectory trajectory) {
+        return new FollowCachedTrajectoryCommand(trajectory, this);
+    }
+
+    /**
+     * Returns a command that drives straight to a pose and ends once it arrives.
+     *
+     * @param goal Goal pose in blue alliance field coordinates
+     * @return Command to run
+     */
+    public Command driveToPose(Pose2d goal) {
+        return driveToPose(() -> goal);
+    }
+
+    /**
+     * Returns a command that drives straight to a pose and ends once it arrives.
+     *
+     * @param goal Function returning the goal pose in blue alliance field coordinates,
+     *             called once each time the command starts
+     * @return Command to run
+     */
+    public Command driveToPose(Supplier<Pose2d> goal) {
+        return new DriveToPoseCommand(
+            this, goal, kDriveToPoseTranslation, kDriveToPoseRotation,
+            kDriveToPoseTranslationTolerance, kDriveToPoseHeadingTolerance
+        );
+    }
+
+    /**
+     * Registers a telemetry function called from the odometry thread after every update.
+     * Each state is recorded in the {@link #getPoseHistory() pose history} before it is passed
+     * on, so the history stays fed whatever is registered.
+     *
+     * @param telemetryFunction Function to call, or null to only record the pose history
+     */
+    @Override
+    public void registerTelemetry(Consumer<SwerveDriveState> telemetryFunction) {
+        if (telemetryFunction == null) {
+            super.registerTelemetry(state -> {
+                m_poseHistory.add(state);
+                countOdometrySample(state);
+            });
+            return;
+        }
+        super.registerTelemetry(state -> {
+            m_poseHistory.add(state);
+            countOdometrySample(state);
+            telemetryFunction.accept(state);
+        });
+    }
+
+    /**
+     * Returns the current pose estimate. With the PHOENIX backend this is the drive state pose;
+     * with FAST it is that pose plus the vision offset, which the drive state and its
+     * telemetry never include. Use this rather than {@code getState().Pose} for the pose.
+     *
+     * @return Estimated robot pose in blue alliance field coordinates
+     */
+    public Pose2d getPose() {
+        Pose2d pose = getState().Pose;
+        if (m_fastEstimator == null) {
+            return pose;
+        }
+        return new Pose2d(
+            pose.getX() + m_fastEstimator.getOffsetX(),
+            pose.getY() + m_fastEstimator.getOffsetY(),
+            Rotation2d.fromRadians(pose.getRotation().getRadians() + m_fastEstimator.getOffsetTheta())
+        );
+    }
+
+    /**
+     * Returns the history of recent poses and speeds, for looking up where the robot was when
+     * a camera frame or sensor sample was captured. Timestamps use the drive state timebase.
+     *
+     * @return Pose history
+     */
+    public PoseHistory getPoseHistory() {
+        return m_poseHistory;
+    }
+
+    /**
+     * Returns the queue the vision thread uses to hand measurements to this drivetrain.
+     * The vision thread is the only producer; {@link #periodic()} is the only consumer.
+     *
+     * @return Vision measurement queue
+     */
+    public VisionMeasurementQueue getVisionMeasurementQueue() {
+        return m_visionMeasurements;
+    }
+
+    /**
+     * Returns the fusion stage that weights vision measurements for this drivetrain.
+     *
+     * @return Vision fusion stage
+     */
+    public VisionFusion getVisionFusion() {
+        return m_visionFusion;
+    }
+
+    /**
+     * Applies every vision measurement queued since the last loop, weighted by its standard
+     * deviations. The pose is only reset outright when vision has consistently diverged.
+     */
+    private void drainVisionMeasurements() {
+        VisionMeasurement measurement;
+        while ((measurement = m_visionMeasurements.peek()) != null) {
+            Pose2d estimatedPose = getPose();
+            if (m_visionFusion.shouldHardReset(measurement, estimatedPose)) {
+                /*
+                 * MegaTag2 heading is our own gyro, so only the translation is taken from vision.
+                 * Not logged as a pose reset, since replay makes the same decision itself.
+                 */
+                super.resetPose(new Pose2d(measurement.x, measurement.y, estimatedPose.getRotation()));
+                onPoseReset(true, true);
+            } else if (m_fastEstimator != null) {
+                m_fastEstimator.addMeasurement(
+                    measurement.x, measurement.y, measurement.yawRadians,
+                    Utils.fpgaToCurrentTime(measurement.timestampSeconds),
+                    measurement.stdDevX, measurement.stdDevY, measurement.stdDevTheta
+                );
+            } else {
+                m_visionStdDevs.set(0, 0, measurement.stdDevX);
+                m_visionStdDevs.set(1, 0, measurement.stdDevY);
+                m_visionStdDevs.set(2, 0, measurement.stdDevTheta);
+                addVisionMeasurement(
+                    new Pose2d(measurement.x, measurement.y, new Rotation2d(measurement.yawRadians)),
+                    measurement.timestampSeconds,
+                    m_visionStdDevs
+                );
+            }
+            m_visionMeasurements.release();
+        }
+    }
+
+    /*
+     * With the FAST backend, drops the offset components the reset replaced, and the history
+     * recorded in the odometry frame from before the jump.
+     */
+    private void onPoseReset(boolean translation, boolean heading) {
+        if (m_fastEstimator == null) {
+            return;
+        }
+        if (translation) {
+            m_fastEstimator.resetTranslation();
+        }
+        if (heading) {
+            m_fastEstimator.resetHeading();
+        }
+        m_poseHistory.clear();
     }
 
     private void startSimThread() {
+        if (kLockstepSim) {
+            /* Freeze simulated time until startLockstepSim() starts stepping it */
+            SimHooks.pauseTiming();
+            return;
+        }
+
         m_lastSimTime = Utils.getCurrentTimeSeconds();
 
         /* Run simulation at a faster rate so PID gains behave more reasonably */
@@ -294,6 +597,83 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
         m_simNotifier.startPeriodic(kSimLoopPeriod);
     }
 
+    /**
+     * Starts lockstep simulation. Each step advances the drivetrain physics by exactly one sim
+     * loop period, waits until Phoenix odometry has sampled the new physics state, then advances
+     * simulated time by the same fixed dt and waits for every Notifier due in that time
+     * (including the robot loop) to finish.
+     * <p>
+     * The Phoenix odometry thread and status signals run on the wall clock, so without the wait
+     * the robot loop would act on a pose some unknown number of steps behind the physics. With
+     * it, every physics state is sampled at least once and no step starts before it is, so the
+     * pose the robot loop sees at a given simulated time is the same every run. Odometry runs at
+     * {@link #kLockstepOdometryFrequency} here so the waits stay short and the simulation still
+     * runs a few times faster than real time.
+     * <p>
+     * Drive state timestamps stay on the Phoenix clock, which is not stepped. Nothing that runs
+     * in lockstep simulation compares them against the FPGA clock, but vision timestamps would
+     * not line up with them.
+     * <p>
+     * Call this once the robot loop is about to start, from simulationInit().
+     * Does nothing unless {@link #kLockstepSim} is set.
+     */
+    public void startLockstepSim() {
+        if (!kLockstepSim || m_lockstepThread != null) {
+            return;
+        }
+        m_lockstepThread = new Thread(() -> {
+            boolean warned = false;
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    int samples;
+                    synchronized (m_odometrySampleLock) {
+                        samples = m_odometrySamples;
+                    }
+                    updateSimState(kSimLoopPeriod, RobotController.getBatteryVoltage());
+                    if (!awaitOdometrySamples(samples + kLockstepOdometrySamples) && !warned) {
+                        DriverStation.reportWarning("Lockstep sim stepped without fresh odometry", false);
+                        warned = true;
+                    }
+                    SimHooks.stepTiming(kSimLoopPeriod);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "LockstepSim");
+        m_lockstepThread.setDaemon(true);
+        m_lockstepThread.start();
+    }
+
+    /* Odometry thread: counts samples with fresh data for lockstep pacing */
+    private void countOdometrySample(SwerveDriveState state) {
+        if (!kLockstepSim) {
+            return;
+        }
+        synchronized (m_odometrySampleLock) {
+            m_odometrySamples = state.SuccessfulDaqs;
+            m_odometrySampleLock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until odometry has counted the given number of successful samples.
+     *
+     * @return False if it timed out first
+     */
+    private boolean awaitOdometrySamples(int target) throws InterruptedException {
+        long deadline = System.nanoTime() + kLockstepOdometryTimeoutNanos;
+        synchronized (m_odometrySampleLock) {
+            while (m_odometrySamples - target < 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(m_odometrySampleLock, remaining);
+            }
+        }
+        return true;
+    }
+
     /**
      * Adds a vision measurement to the Kalman Filter. This will correct the odometry pose estimate
      * while still accounting for measurement noise.
@@ -327,4 +707,62 @@ public class CommandSwerveDrivetrain extends TunerSwerveDrivetrain implements Su
     ) {
         super.addVisionMeasurement(visionRobotPoseMeters, Utils.fpgaToCurrentTime(timestampSeconds), visionMeasurementStdDevs);
     }
+
+    /**
+     * Resets the pose estimate and records the reset for replay.
+     *
+     * @param pose Pose to reset to
+     */
+    @Override
+    public void resetPose(Pose2d pose) {
+        super.resetPose(pose);
+        onPoseReset(true, true);
+        logPoseReset(pose.getX(), pose.getY(), pose.getRotation().getRadians());
+    }
+
+    /**
+     * Resets the translation of the pose estimate and records the reset for replay.
+     *
+     * @param translation Translation to reset to
+     */
+    @Override
+    public void resetTranslation(Translation2d translation) {
+        super.resetTranslation(translation);
+        onPoseReset(true, false);
+        logPoseReset(translation.getX(), translation.getY(), Double.NaN);
+    }
+
+    /**
+     * Resets the rotation of the pose estimate and records the reset for replay.
+     *
+     * @param rotation Rotation to reset to
+     */
+    @Override
+    public void resetRotation(Rotation2d rotation) {
+        super.resetRotation(rotation);
+        onPoseReset(false, true);
+        logPoseReset(Double.NaN, Double.NaN, rotation.getRadians());
+    }
+
+    /**
+     * Makes the current heading the operator's forward direction and records the reset for replay.
+     */
+    @Override
+    public void seedFieldCentric() {
+        super.seedFieldCentric();
+        onPoseReset(false, true);
+        logPoseReset(Double.NaN, Double.NaN, getOperatorForwardDirection().getRadians());
+    }
+
+    /* Stamped with the current FPGA time, the timebase of the odometry records */
+    private synchronized void logPoseReset(double x, double y, double headingRadians) {
+        if (m_poseResetLog == null) {
+            DataLog log = ReplayLog.getLog();
+            if (log == null) {
+                return;
+            }
+            m_poseResetLog = new DoubleArrayLogEntry(log, ReplayLog.kPoseResetEntry);
+        }
+        m_poseResetLog.append(new double[] {x, y, headingRadians});
+    }
 }
@@ -3,26 +3,55 @@ package frc.robot.subsystems;
 
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoubleSubscriber;
 import edu.wpi.first.networktables.NetworkTable;
-import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
 
+import frc.robot.util.LoopProfiler;
+import frc.robot.vision.LimelightCommandBuffer;
+
 public class LimeLight extends SubsystemBase {
 
-    private String m_network_table_key = "limelight";
+    private static final double[] kEmptyArray = new double[0];
+
+    private final String m_network_table_key;
+
+    /* Typed handles are resolved once here so periodic() never does a string-keyed lookup */
+    private final DoubleSubscriber sub_tx;
+    private final DoubleSubscriber sub_ty;
+    private final DoubleSubscriber sub_ta;
+    private final DoubleSubscriber sub_tid;
+    private final DoubleSubscriber sub_tv;
+    private final DoubleSubscriber sub_getpipe;
+    private final DoubleArraySubscriber sub_targetpose_cameraspace;
+    private final DoubleArraySubscriber sub_botpose;
+    /* Pipeline switches go out with the vision thread's next flush */
+    private final LimelightCommandBuffer m_commands;
+
+    /* Last change timestamps of the array topics, used to skip copying when nothing new arrived */
+    private long m_targetPoseLastChange = 0;
+    private long m_botPoseLastChange = 0;
+
+    private final LoopProfiler.Section m_periodicTiming;
 
     public LimeLight(String network_table_key) {
         m_network_table_key = network_table_key;
+
+        NetworkTable table = NetworkTableInstance.getDefault().getTable(m_network_table_key);
+        sub_tx = table.getDoubleTopic("tx").subscribe(0.0);
+        sub_ty = table.getDoubleTopic("ty").subscribe(0.0);
+        sub_ta = table.getDoubleTopic("ta").subscribe(0.0);
+        sub_tid = table.getDoubleTopic("tid").subscribe(0.0);
+        sub_tv = table.getDoubleTopic("tv").subscribe(0.0);
+        sub_getpipe = table.getDoubleTopic("getpipe").subscribe(0.0);
+        sub_targetpose_cameraspace = table.getDoubleArrayTopic("targetpose_cameraspace").subscribe(kEmptyArray);
+        sub_botpose = table.getDoubleArrayTopic("botpose").subscribe(kEmptyArray);
+        m_commands = LimelightCommandBuffer.forLimelight(m_network_table_key);
+
+        m_periodicTiming = LoopProfiler.section("LimeLight/" + m_network_table_key);
     }
 
-    NetworkTable table = NetworkTableInstance.getDefault().getTable(m_network_table_key);
-    NetworkTableEntry entry_tx = table.getEntry("tx");
-    NetworkTableEntry entry_ty = table.getEntry("ty");
-    NetworkTableEntry entry_ta = table.getEntry("ta");
-    NetworkTableEntry entry_tid = table.getEntry("tid");
-    NetworkTableEntry entry_tv = table.getEntry("tv");
-    NetworkTableEntry entry_getpipe = table.getEntry("getpipe");
-    
     // general AT data
     public double tid = 0;
     public double getpipe;
@@ -33,42 +62,70 @@ public class LimeLight extends SubsystemBase {
     public double ty = 0;
     public double ta = 0;
 
-    // 3d AT data
-    public double[] DDDx3_data3D = NetworkTableInstance.getDefault().getTable(m_network_table_key).getEntry("targetpose_cameraspace").getDoubleArray(new double[6]);
+    // 3d AT data, refilled in place every loop [x, y, z, roll, pitch, yaw]
+    public final double[] DDDx3_data3D = new double[6];
 
-    public double[] Pos_data = NetworkTableInstance.getDefault().getTable(m_network_table_key).getEntry("botpose").getDoubleArray(new double[6]);
+    public final double[] Pos_data = new double[6];
 
 
 
     public double last_seen_tag_id = 0;
 
+    /** @return The NetworkTables name of this Limelight */
+    public String getTableName() {
+        return m_network_table_key;
+    }
+
     public void setAprilTag() {
-        NetworkTableInstance.getDefault().getTable(m_network_table_key).getEntry("pipeline").setNumber(0);
+        m_commands.setPipelineIndex(0);
     }
 
     public void setReflective() {
-        NetworkTableInstance.getDefault().getTable(m_network_table_key).getEntry("pipeline").setNumber(1);
+        m_commands.setPipelineIndex(1);
     }
 
     @Override
     public void periodic() {
         // This method will be called once per scheduler run
-        tx = entry_tx.getDouble(0.0);
-        ty = entry_ty.getDouble(0.0);
-        ta = entry_ta.getDouble(0.0);
-        tid = entry_tid.getDouble(0.0);
-        getpipe = entry_getpipe.getDouble(0.0);
-        tv = entry_tv.getDouble(0.0);
-
-        DDDx3_data3D = NetworkTableInstance.getDefault().getTable(m_network_table_key).getEntry("targetpose_cameraspace").getDoubleArray(new double[6]);
+        m_periodicTiming.start();
+        tx = sub_tx.get();
+        ty = sub_ty.get();
+        ta = sub_ta.get();
+        tid = sub_tid.get();
+        getpipe = sub_getpipe.get();
+        tv = sub_tv.get();
+
+        /*
+         * The array getters hand back a fresh array, so only read them when the
+         * Limelight has actually published a new value since the last loop.
+         */
+        long targetPoseChange = sub_targetpose_cameraspace.getLastChange();
+        if (targetPoseChange != m_targetPoseLastChange) {
+            m_targetPoseLastChange = targetPoseChange;
+            copyInto(sub_targetpose_cameraspace.get(), DDDx3_data3D);
+        }
 
-        Pos_data = NetworkTableInstance.getDefault().getTable(m_network_table_key).getEntry("botpose").getDoubleArray(new double[6]);
+        long botPoseChange = sub_botpose.getLastChange();
+        if (botPoseChange != m_botPoseLastChange) {
+            m_botPoseLastChange = botPoseChange;
+            copyInto(sub_botpose.get(), Pos_data);
+        }
 
         if (tid != 0) {
             last_seen_tag_id = tid;
         }
+        m_periodicTiming.stop();
+    }
+
+    /** Copies as much of src as fits into dst, zeroing whatever src does not cover. */
+    private static void copyInto(double[] src, double[] dst) {
+        int count = Math.min(src.length, dst.length);
+        System.arraycopy(src, 0, dst, 0, count);
+        for (int i = count; i < dst.length; ++i) {
+            dst[i] = 0;
+        }
     }
 
     @Override
     public void simulationPeriodic() {}
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package frc.robot.trajectory;
+
+import com.pathplanner.lib.trajectory.PathPlannerTrajectoryState;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/**
+ * A pregenerated PathPlanner trajectory held as primitive columns, as read from the
+ * {@link TrajectoryCache}. Poses and speeds are field relative on the blue alliance; the wheel
+ * force feedforwards are robot relative, one column per module.
+ */
+public class CachedTrajectory {
+    private final String m_name;
+    private final double[] m_time;
+    private final double[] m_x;
+    private final double[] m_y;
+    private final double[] m_heading;
+    private final double[] m_vx;
+    private final double[] m_vy;
+    private final double[] m_omega;
+    private final double[][] m_forcesX;
+    private final double[][] m_forcesY;
+
+    CachedTrajectory(String name, double[] time, double[] x, double[] y, double[] heading,
+                     double[] vx, double[] vy, double[] omega, double[][] forcesX, double[][] forcesY) {
+        m_name = name;
+        m_time = time;
+        m_x = x;
+        m_y = y;
+        m_heading = heading;
+        m_vx = vx;
+        m_vy = vy;
+        m_omega = omega;
+        m_forcesX = forcesX;
+        m_forcesY = forcesY;
+    }
+
+    /** @return Name of the path this trajectory was generated from */
+    public String getName() {
+        return m_name;
+    }
+
+    /** @return Duration of the trajectory in seconds */
+    public double getTotalTimeSeconds() {
+        return m_time[m_time.length - 1];
+    }
+
+    /** @return Blue alliance pose at the start of the trajectory */
+    public Pose2d getInitialPose() {
+        return new Pose2d(m_x[0], m_y[0], new Rotation2d(m_heading[0]));
+    }
+
+    /**
+     * Samples the trajectory, interpolating linearly between the two surrounding states.
+     *
+     * @param timeSeconds Time since the start of the trajectory
+     * @param state       State to fill in with the blue alliance pose and field speeds
+     */
+    public void sample(double timeSeconds, PathPlannerTrajectoryState state) {
+        int lo = lowerIndex(timeSeconds);
+        int hi = Math.min(lo + 1, m_time.length - 1);
+        double t = fraction(timeSeconds, lo, hi);
+
+        double headingDelta = Math.IEEEremainder(m_heading[hi] - m_heading[lo], 2 * Math.PI);
+        state.timeSeconds = timeSeconds;
+        state.pose = new Pose2d(
+            lerp(m_x[lo], m_x[hi], t),
+            lerp(m_y[lo], m_y[hi], t),
+            new Rotation2d(m_heading[lo] + headingDelta * t)
+        );
+        state.fieldSpeeds = new ChassisSpeeds(
+            lerp(m_vx[lo], m_vx[hi], t),
+            lerp(m_vy[lo], m_vy[hi], t),
+            lerp(m_omega[lo], m_omega[hi], t)
+        );
+        state.linearVelocity = Math.hypot(state.fieldSpeeds.vxMetersPerSecond, state.fieldSpeeds.vyMetersPerSecond);
+        if (state.linearVelocity > 1e-6) {
+            /* Direction of travel */
+            state.heading = new Rotation2d(state.fieldSpeeds.vxMetersPerSecond, state.fieldSpeeds.vyMetersPerSecond);
+        }
+    }
+
+    /**
+     * Samples the robot relative wheel force feedforwards, interpolating linearly between the
+     * two surrounding states the same way {@link #sample} does.
+     *
+     * @param timeSeconds Time since the start of the trajectory
+     * @param forcesX     Filled with the X force of each module in newtons
+     * @param forcesY     Filled with the Y force of each module in newtons
+     */
+    public void sampleWheelForces(double timeSeconds, double[] forcesX, double[] forcesY) {
+        int lo = lowerIndex(timeSeconds);
+        int hi = Math.min(lo + 1, m_time.length - 1);
+        double t = fraction(timeSeconds, lo, hi);
+        for (int i = 0; i < m_forcesX.length; ++i) {
+            forcesX[i] = lerp(m_forcesX[i][lo], m_forcesX[i][hi], t);
+            forcesY[i] = lerp(m_forcesY[i][lo], m_forcesY[i][hi], t);
+        }
+    }
+
+    /** @return Number of modules with wheel force feedforwards */
+    public int getModuleCount() {
+        return m_forcesX.length;
+    }
+
+    /* Index of the state at or before the sample time, clamped so a following state exists when there is one */
+    private int lowerIndex(double timeSeconds) {
+        int lo = 0;
+        int hi = m_time.length - 1;
+        if (timeSeconds <= m_time[0]) {
+            return 0;
+        } else if (timeSeconds >= m_time[hi]) {
+            return Math.max(0, hi - 1);
+        }
+        /* Narrow to the two states surrounding the sample time */
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (m_time[mid] < timeSeconds) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /* How far the sample time is from state lo to state hi, from 0 to 1 */
+    private double fraction(double timeSeconds, int lo, int hi) {
+        double span = m_time[hi] - m_time[lo];
+        return span > 0 ? Math.min(1, Math.max(0, (timeSeconds - m_time[lo]) / span)) : 1;
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+}
@@ -0,0 +1,192 @@
+package frc.robot.trajectory;
+
+import java.util.function.Supplier;
+
+import com.ctre.phoenix6.swerve.SwerveModule.DriveRequestType;
+import com.ctre.phoenix6.swerve.SwerveRequest;
+import com.ctre.phoenix6.swerve.SwerveRequest.ForwardPerspectiveValue;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj2.command.Command;
+
+import frc.robot.subsystems.CommandSwerveDrivetrain;
+
+/**
+ * Drives straight to a field pose with a translation and a heading trapezoidal profile that
+ * are time-scaled to arrive together.
+ * <p>
+ * Both profiles are advanced one loop at a time from the measured pose and the previous
+ * setpoint speed, so the command reacts to disturbances and starts moving on its first loop.
+ * Nothing is allocated in {@link #execute()}: the goal is read once per {@link #initialize()}
+ * and the output goes through a single reused field-centric request in blue alliance
+ * coordinates.
+ */
+public class DriveToPoseCommand extends Command {
+    private static final double kDt = TimedRobot.kDefaultPeriod;
+
+    private final CommandSwerveDrivetrain m_drivetrain;
+    private final Supplier<Pose2d> m_goalSupplier;
+    private final double m_maxVelocity;
+    private final double m_maxAcceleration;
+    private final double m_maxAngularVelocity;
+    private final double m_maxAngularAcceleration;
+    private final double m_translationTolerance;
+    private final double m_headingTolerance;
+
+    private final SwerveRequest.FieldCentric m_request = new SwerveRequest.FieldCentric()
+        .withForwardPerspective(ForwardPerspectiveValue.BlueAlliance)
+        .withDriveRequestType(DriveRequestType.Velocity);
+
+    private double m_goalX;
+    private double m_goalY;
+    private double m_goalHeading;
+    /* Setpoint speeds from the previous loop; the profiles continue from these */
+    private double m_speed;
+    private double m_angularSpeed;
+    private double m_distance;
+    private double m_headingError;
+
+    /**
+     * Constructs the command.
+     *
+     * @param drivetrain             Drivetrain to drive
+     * @param goal                   Goal pose in blue alliance field coordinates, read when the command starts
+     * @param translation            Translation speed (m/s) and acceleration (m/s^2) limits
+     * @param rotation               Angular speed (rad/s) and acceleration (rad/s^2) limits
+     * @param translationTolerance   Distance from the goal, in meters, that counts as arrived
+     * @param headingTolerance       Heading error, in radians, that counts as arrived
+     */
+    public DriveToPoseCommand(
+        CommandSwerveDrivetrain drivetrain,
+        Supplier<Pose2d> goal,
+        TrapezoidProfile.Constraints translation,
+        TrapezoidProfile.Constraints rotation,
+        double translationTolerance,
+        double headingTolerance
+    ) {
+        m_drivetrain = drivetrain;
+        m_goalSupplier = goal;
+        m_maxVelocity = translation.maxVelocity;
+        m_maxAcceleration = translation.maxAcceleration;
+        m_maxAngularVelocity = rotation.maxVelocity;
+        m_maxAngularAcceleration = rotation.maxAcceleration;
+        m_translationTolerance = translationTolerance;
+        m_headingTolerance = headingTolerance;
+        setName("DriveToPose");
+        addRequirements(drivetrain);
+    }
+
+    @Override
+    public void initialize() {
+        Pose2d goal = m_goalSupplier.get();
+        m_goalX = goal.getX();
+        m_goalY = goal.getY();
+        m_goalHeading = goal.getRotation().getRadians();
+
+        /* Start from the measured speed toward the goal so an already-moving robot isn't jerked to a stop */
+        var state = m_drivetrain.getState();
+        Pose2d pose = m_drivetrain.getPose();
+        double dx = m_goalX - pose.getX();
+        double dy = m_goalY - pose.getY();
+        double distance = Math.hypot(dx, dy);
+        double cos = pose.getRotation().getCos();
+        double sin = pose.getRotation().getSin();
+        double fieldVx = state.Speeds.vxMetersPerSecond * cos - state.Speeds.vyMetersPerSecond * sin;
+        double fieldVy = state.Speeds.vxMetersPerSecond * sin + state.Speeds.vyMetersPerSecond * cos;
+        m_speed = distance > 1e-6 ? Math.max(0, (fieldVx * dx + fieldVy * dy) / distance) : 0;
+
+        double headingError = MathUtil.angleModulus(m_goalHeading - pose.getRotation().getRadians());
+        m_angularSpeed = Math.max(0, state.Speeds.omegaRadiansPerSecond * Math.signum(headingError));
+    }
+
+    @Override
+    public void execute() {
+        Pose2d pose = m_drivetrain.getPose();
+        double dx = m_goalX - pose.getX();
+        double dy = m_goalY - pose.getY();
+        m_distance = Math.hypot(dx, dy);
+        m_headingError = MathUtil.angleModulus(m_goalHeading - pose.getRotation().getRadians());
+        double angle = Math.abs(m_headingError);
+
+        /*
+         * Stretch the faster profile in time so both finish together, which keeps the robot on
+         * a straight line while it turns. Stretching time by k scales speed by 1/k and
+         * acceleration by 1/k^2.
+         */
+        double translationTime = timeToGo(m_distance, m_maxVelocity, m_maxAcceleration);
+        double rotationTime = timeToGo(angle, m_maxAngularVelocity, m_maxAngularAcceleration);
+        double maxVelocity = m_maxVelocity;
+        double maxAcceleration = m_maxAcceleration;
+        double maxAngularVelocity = m_maxAngularVelocity;
+        double maxAngularAcceleration = m_maxAngularAcceleration;
+        if (translationTime > 0 && rotationTime > translationTime) {
+            double k = translationTime / rotationTime;
+            maxVelocity *= k;
+            maxAcceleration *= k * k;
+        } else if (rotationTime > 0 && translationTime > rotationTime) {
+            double k = rotationTime / translationTime;
+            maxAngularVelocity *= k;
+            maxAngularAcceleration *= k * k;
+        }
+
+        m_speed = nextSpeed(m_speed, m_distance, maxVelocity, maxAcceleration);
+        m_angularSpeed = nextSpeed(m_angularSpeed, angle, maxAngularVelocity, maxAngularAcceleration);
+
+        double vx = 0;
+        double vy = 0;
+        if (m_distance > 1e-6) {
+            vx = m_speed * dx / m_distance;
+            vy = m_speed * dy / m_distance;
+        }
+        m_drivetrain.setControl(
+            m_request.withVelocityX(vx)
+                .withVelocityY(vy)
+                .withRotationalRate(Math.copySign(m_angularSpeed, m_headingError))
+        );
+    }
+
+    @Override
+    public boolean isFinished() {
+        return m_distance < m_translationTolerance && Math.abs(m_headingError) < m_headingTolerance;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        m_speed = 0;
+        m_angularSpeed = 0;
+        m_drivetrain.setControl(m_request.withVelocityX(0).withVelocityY(0).withRotationalRate(0));
+    }
+
+    /**
+     * Advances a trapezoid profile by one loop toward a goal at rest.
+     *
+     * @param speed           Setpoint speed from the previous loop, toward the goal
+     * @param remaining       Distance left to the goal
+     * @param maxVelocity     Speed limit
+     * @param maxAcceleration Acceleration and deceleration limit
+     * @return Setpoint speed for this loop
+     */
+    private static double nextSpeed(double speed, double remaining, double maxVelocity, double maxAcceleration) {
+        /* Accelerate, cruise, or follow the braking curve, and never overshoot within one loop */
+        double next = Math.min(speed + maxAcceleration * kDt, maxVelocity);
+        next = Math.min(next, Math.sqrt(2 * maxAcceleration * remaining));
+        return Math.min(next, remaining / kDt);
+    }
+
+    /**
+     * @param distance        Distance to travel, starting and ending at rest
+     * @param maxVelocity     Speed limit
+     * @param maxAcceleration Acceleration limit
+     * @return Duration of the trapezoid profile covering the distance
+     */
+    private static double timeToGo(double distance, double maxVelocity, double maxAcceleration) {
+        if (distance * maxAcceleration < maxVelocity * maxVelocity) {
+            /* Triangular: never reaches the speed limit */
+            return 2 * Math.sqrt(distance / maxAcceleration);
+        }
+        return distance / maxVelocity + maxVelocity / maxAcceleration;
+    }
+}
@@ -0,0 +1,98 @@
+package frc.robot.trajectory;
+
+import java.util.Arrays;
+
+import com.ctre.phoenix6.swerve.SwerveRequest;
+import com.pathplanner.lib.controllers.PPHolonomicDriveController;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectoryState;
+import com.pathplanner.lib.util.FlippingUtil;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+
+import frc.robot.subsystems.CommandSwerveDrivetrain;
+
+/**
+ * Follows a {@link CachedTrajectory} with the same holonomic controller AutoBuilder uses,
+ * flipping it to the red alliance when needed, without generating anything at runtime.
+ * The wheel force feedforwards are applied the same way as AutoBuilder's output, so a path
+ * drives the same whether it came from the cache or not.
+ */
+public class FollowCachedTrajectoryCommand extends Command {
+    private final CachedTrajectory m_trajectory;
+    private final CommandSwerveDrivetrain m_drivetrain;
+    private final PPHolonomicDriveController m_controller = new PPHolonomicDriveController(
+        CommandSwerveDrivetrain.kPathTranslationPID,
+        CommandSwerveDrivetrain.kPathRotationPID
+    );
+    private final SwerveRequest.ApplyRobotSpeeds m_request = new SwerveRequest.ApplyRobotSpeeds();
+    private final PathPlannerTrajectoryState m_target = new PathPlannerTrajectoryState();
+    private final double[] m_forcesX;
+    private final double[] m_forcesY;
+    private final Timer m_timer = new Timer();
+    private boolean m_flip = false;
+
+    /**
+     * Constructs the command.
+     *
+     * @param trajectory Trajectory to follow
+     * @param drivetrain Drivetrain to drive
+     */
+    public FollowCachedTrajectoryCommand(CachedTrajectory trajectory, CommandSwerveDrivetrain drivetrain) {
+        m_trajectory = trajectory;
+        m_drivetrain = drivetrain;
+        m_forcesX = new double[trajectory.getModuleCount()];
+        m_forcesY = new double[trajectory.getModuleCount()];
+        setName("FollowCachedTrajectory(" + trajectory.getName() + ")");
+        addRequirements(drivetrain);
+    }
+
+    @Override
+    public void initialize() {
+        m_flip = DriverStation.getAlliance().orElse(Alliance.Blue) == Alliance.Red;
+        var state = m_drivetrain.getState();
+        m_controller.reset(m_drivetrain.getPose(), state.Speeds);
+        m_timer.restart();
+    }
+
+    @Override
+    public void execute() {
+        double time = m_timer.get();
+        m_trajectory.sample(time, m_target);
+        m_trajectory.sampleWheelForces(time, m_forcesX, m_forcesY);
+        double[] forcesX = m_forcesX;
+        double[] forcesY = m_forcesY;
+        if (m_flip) {
+            m_target.pose = FlippingUtil.flipFieldPose(m_target.pose);
+            m_target.fieldSpeeds = FlippingUtil.flipFieldSpeeds(m_target.fieldSpeeds);
+            /* Same flip PathPlanner applies to the feedforwards of a flipped trajectory */
+            forcesX = FlippingUtil.flipFeedforwardXs(forcesX);
+            forcesY = FlippingUtil.flipFeedforwardYs(forcesY);
+        }
+
+        Pose2d pose = m_drivetrain.getPose();
+        m_drivetrain.setControl(
+            m_request.withSpeeds(m_controller.calculateRobotRelativeSpeeds(pose, m_target))
+                .withWheelForceFeedforwardsX(forcesX)
+                .withWheelForceFeedforwardsY(forcesY)
+        );
+    }
+
+    @Override
+    public boolean isFinished() {
+        return m_timer.hasElapsed(m_trajectory.getTotalTimeSeconds());
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        Arrays.fill(m_forcesX, 0);
+        Arrays.fill(m_forcesY, 0);
+        m_drivetrain.setControl(m_request.withSpeeds(new ChassisSpeeds())
+            .withWheelForceFeedforwardsX(m_forcesX)
+            .withWheelForceFeedforwardsY(m_forcesY));
+    }
+}
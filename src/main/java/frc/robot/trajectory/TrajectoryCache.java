@@ -0,0 +1,168 @@
+package frc.robot.trajectory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Read side of the precompiled trajectory cache written by {@link TrajectoryCacheGenerator}.
+ * <p>
+ * The cache file is memory-mapped and only its small index is read on open; each trajectory is
+ * decoded the first time it is asked for. Every entry is keyed by a hash of its .path file and
+ * the PathPlanner settings, so a path edited after the cache was built is reported as a miss
+ * and the caller falls back to generating it from JSON.
+ * <p>
+ * File layout, big-endian: magic, version and entry count as ints; per entry the UTF-8 name
+ * (int length then bytes), the content hash as a long, and the absolute offset and state count
+ * of its data as ints. Entry data is stored column by column: time, x, y, heading, vx, vy, omega,
+ * then the robot relative X wheel force feedforward of each module and the Y force of each
+ * module, each as stateCount doubles.
+ */
+public class TrajectoryCache {
+    static final int kMagic = 0x50505443; // "PPTC"
+    static final int kVersion = 2;
+    /** Modules with wheel force feedforwards, in PathPlanner and Phoenix module order */
+    static final int kModuleCount = 4;
+    static final int kColumns = 7 + 2 * kModuleCount;
+
+    private static final class Entry {
+        final long hash;
+        final int offset;
+        final int stateCount;
+
+        Entry(long hash, int offset, int stateCount) {
+            this.hash = hash;
+            this.offset = offset;
+            this.stateCount = stateCount;
+        }
+    }
+
+    private final ByteBuffer m_buffer;
+    private final Map<String, Entry> m_index;
+    private final Map<String, CachedTrajectory> m_loaded = new HashMap<>();
+
+    private TrajectoryCache(ByteBuffer buffer, Map<String, Entry> index) {
+        m_buffer = buffer;
+        m_index = index;
+    }
+
+    /** @return Location of the cache file in the deploy directory */
+    public static Path cacheFile() {
+        return Filesystem.getDeployDirectory().toPath().resolve("pathplanner/cache/trajectories.bin");
+    }
+
+    /**
+     * Opens the deployed cache. A missing or unreadable cache gives an empty cache.
+     *
+     * @return Trajectory cache
+     */
+    public static TrajectoryCache open() {
+        Path file = cacheFile();
+        if (!Files.exists(file)) {
+            DriverStation.reportWarning("No trajectory cache at " + file + ", paths will be generated at runtime", false);
+            return new TrajectoryCache(null, Collections.emptyMap());
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != kMagic || buffer.getInt() != kVersion) {
+                throw new IOException("unrecognized format");
+            }
+            int count = buffer.getInt();
+            Map<String, Entry> index = new TreeMap<>();
+            for (int i = 0; i < count; ++i) {
+                byte[] name = new byte[buffer.getInt()];
+                buffer.get(name);
+                index.put(new String(name, StandardCharsets.UTF_8),
+                    new Entry(buffer.getLong(), buffer.getInt(), buffer.getInt()));
+            }
+            return new TrajectoryCache(buffer, index);
+        } catch (IOException | RuntimeException e) {
+            DriverStation.reportWarning("Could not read trajectory cache " + file + ": " + e.getMessage(), false);
+            return new TrajectoryCache(null, Collections.emptyMap());
+        }
+    }
+
+    /** @return Names of every path in the cache */
+    public Set<String> getPathNames() {
+        return Collections.unmodifiableSet(m_index.keySet());
+    }
+
+    /**
+     * Returns the cached trajectory of a path, decoding it on first use.
+     *
+     * @param pathName Name of the path, without the .path extension
+     * @return The trajectory, or empty if the path is not cached or changed since the cache was built
+     */
+    public synchronized Optional<CachedTrajectory> get(String pathName) {
+        CachedTrajectory loaded = m_loaded.get(pathName);
+        if (loaded != null) {
+            return Optional.of(loaded);
+        }
+        Entry entry = m_index.get(pathName);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        try {
+            if (contentHash(Filesystem.getDeployDirectory().toPath(), pathName) != entry.hash) {
+                DriverStation.reportWarning("Trajectory cache is stale for " + pathName + ", rebuild it", false);
+                return Optional.empty();
+            }
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+
+        DoubleBuffer data = m_buffer.duplicate().position(entry.offset).slice().asDoubleBuffer();
+        double[][] columns = new double[kColumns][entry.stateCount];
+        for (double[] column : columns) {
+            data.get(column);
+        }
+        double[][] forcesX = new double[kModuleCount][];
+        double[][] forcesY = new double[kModuleCount][];
+        for (int i = 0; i < kModuleCount; ++i) {
+            forcesX[i] = columns[7 + i];
+            forcesY[i] = columns[7 + kModuleCount + i];
+        }
+        loaded = new CachedTrajectory(pathName,
+            columns[0], columns[1], columns[2], columns[3], columns[4], columns[5], columns[6], forcesX, forcesY);
+        m_loaded.put(pathName, loaded);
+        return Optional.of(loaded);
+    }
+
+    /**
+     * Hashes everything a generated trajectory depends on: the .path file and the robot settings.
+     *
+     * @param deployDirectory Deploy directory holding the pathplanner folder
+     * @param pathName        Name of the path, without the .path extension
+     * @return First 64 bits of the SHA-256 of the inputs
+     * @throws IOException If either file cannot be read
+     */
+    static long contentHash(Path deployDirectory, String pathName) throws IOException {
+        Path pathplanner = deployDirectory.resolve("pathplanner");
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        digest.update(Files.readAllBytes(pathplanner.resolve("paths").resolve(pathName + ".path")));
+        digest.update(Files.readAllBytes(pathplanner.resolve("settings.json")));
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+}
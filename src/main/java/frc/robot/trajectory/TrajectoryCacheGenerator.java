@@ -0,0 +1,109 @@
+package frc.robot.trajectory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.pathplanner.lib.config.RobotConfig;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectory;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectoryState;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Build-time step that generates a trajectory for every PathPlanner path and writes them all
+ * into the binary cache read by {@link TrajectoryCache}. Run from the project directory, so the
+ * deploy directory resolves to src/main/deploy; see the generateTrajectoryCache Gradle task.
+ */
+public class TrajectoryCacheGenerator {
+    private static final class Generated {
+        final String name;
+        final byte[] nameBytes;
+        final long hash;
+        final List<PathPlannerTrajectoryState> states;
+
+        Generated(String name, long hash, List<PathPlannerTrajectoryState> states) {
+            this.name = name;
+            this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            this.hash = hash;
+            this.states = states;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path deploy = Filesystem.getDeployDirectory().toPath();
+        Path output = TrajectoryCache.cacheFile();
+        RobotConfig config = RobotConfig.fromGUISettings();
+
+        List<String> names = new ArrayList<>();
+        try (Stream<Path> files = Files.list(deploy.resolve("pathplanner/paths"))) {
+            files.map(p -> p.getFileName().toString())
+                .filter(name -> name.endsWith(".path"))
+                .map(name -> name.substring(0, name.length() - ".path".length()))
+                .sorted()
+                .forEach(names::add);
+        }
+
+        List<Generated> generated = new ArrayList<>();
+        for (String name : names) {
+            PathPlannerPath path = PathPlannerPath.fromPathFile(name);
+            PathPlannerTrajectory trajectory = path.getIdealTrajectory(config)
+                .orElseGet(() -> path.generateTrajectory(new ChassisSpeeds(), Rotation2d.kZero, config));
+            generated.add(new Generated(name, TrajectoryCache.contentHash(deploy, name), trajectory.getStates()));
+        }
+
+        write(generated, output);
+        System.out.printf("Cached %d trajectories -> %s%n", generated.size(), output);
+        System.exit(0);
+    }
+
+    private static void write(List<Generated> generated, Path output) throws IOException {
+        /* Header and index come first, so compute where the first entry's data starts */
+        int offset = 3 * Integer.BYTES;
+        for (Generated entry : generated) {
+            offset += Integer.BYTES + entry.nameBytes.length + Long.BYTES + 2 * Integer.BYTES;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(TrajectoryCache.kMagic);
+            out.writeInt(TrajectoryCache.kVersion);
+            out.writeInt(generated.size());
+            for (Generated entry : generated) {
+                out.writeInt(entry.nameBytes.length);
+                out.write(entry.nameBytes);
+                out.writeLong(entry.hash);
+                out.writeInt(offset);
+                out.writeInt(entry.states.size());
+                offset += TrajectoryCache.kColumns * Double.BYTES * entry.states.size();
+            }
+            for (Generated entry : generated) {
+                for (var state : entry.states) out.writeDouble(state.timeSeconds);
+                for (var state : entry.states) out.writeDouble(state.pose.getX());
+                for (var state : entry.states) out.writeDouble(state.pose.getY());
+                for (var state : entry.states) out.writeDouble(state.pose.getRotation().getRadians());
+                for (var state : entry.states) out.writeDouble(state.fieldSpeeds.vxMetersPerSecond);
+                for (var state : entry.states) out.writeDouble(state.fieldSpeeds.vyMetersPerSecond);
+                for (var state : entry.states) out.writeDouble(state.fieldSpeeds.omegaRadiansPerSecond);
+                for (int i = 0; i < TrajectoryCache.kModuleCount; ++i) {
+                    for (var state : entry.states) out.writeDouble(state.feedforwards.robotRelativeForcesXNewtons()[i]);
+                }
+                for (int i = 0; i < TrajectoryCache.kModuleCount; ++i) {
+                    for (var state : entry.states) out.writeDouble(state.feedforwards.robotRelativeForcesYNewtons()[i]);
+                }
+            }
+        }
+
+        Files.createDirectories(output.getParent());
+        Files.write(output, bytes.toByteArray());
+    }
+}
@@ -0,0 +1,122 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.ctre.phoenix6.SignalLogger;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Low-overhead latency profiler for sections of the main robot loop.
+ * <p>
+ * Each {@link Section} records System.nanoTime() durations into a fixed ring buffer.
+ * Once per second {@link #publish()} sorts a preallocated copy of every ring and publishes
+ * the p50, p99 and max of the recent window to NetworkTables under LoopTiming and to
+ * SignalLogger. Sections are registered up front; recording and publishing do not allocate.
+ * Sections are not thread-safe and are meant for code on the main robot thread.
+ */
+public final class LoopProfiler {
+    /* Samples kept per section, about five seconds at 50 Hz */
+    private static final int kWindowSize = 256;
+    /* Loops between publishes, one second at 50 Hz */
+    private static final int kPublishPeriodLoops = 50;
+
+    private static final NetworkTable kTable = NetworkTableInstance.getDefault().getTable("LoopTiming");
+    private static final ArrayList<Section> kSections = new ArrayList<>();
+    private static int s_loopsSincePublish = 0;
+
+    private LoopProfiler() {}
+
+    /** Latency history of one named section of code. */
+    public static final class Section {
+        private final long[] m_samples = new long[kWindowSize];
+        private final long[] m_sorted = new long[kWindowSize];
+        private int m_next = 0;
+        private int m_count = 0;
+        private long m_start = 0;
+
+        private final DoublePublisher m_p50Pub;
+        private final DoublePublisher m_p99Pub;
+        private final DoublePublisher m_maxPub;
+        private final String m_p50Key;
+        private final String m_p99Key;
+        private final String m_maxKey;
+
+        private Section(String name) {
+            m_p50Pub = kTable.getDoubleTopic(name + "/p50Ms").publish();
+            m_p99Pub = kTable.getDoubleTopic(name + "/p99Ms").publish();
+            m_maxPub = kTable.getDoubleTopic(name + "/maxMs").publish();
+            m_p50Key = "LoopTiming/" + name + "/p50";
+            m_p99Key = "LoopTiming/" + name + "/p99";
+            m_maxKey = "LoopTiming/" + name + "/max";
+        }
+
+        /** Marks the start of the section. */
+        public void start() {
+            m_start = System.nanoTime();
+        }
+
+        /** Marks the end of the section and records its duration. */
+        public void stop() {
+            record(System.nanoTime() - m_start);
+        }
+
+        /**
+         * Records a duration measured elsewhere.
+         *
+         * @param nanos Duration in nanoseconds
+         */
+        public void record(long nanos) {
+            m_samples[m_next] = nanos;
+            m_next = (m_next + 1) % kWindowSize;
+            if (m_count < kWindowSize) {
+                ++m_count;
+            }
+        }
+
+        private void publish() {
+            if (m_count == 0) {
+                return;
+            }
+            System.arraycopy(m_samples, 0, m_sorted, 0, m_count);
+            Arrays.sort(m_sorted, 0, m_count);
+
+            double p50 = m_sorted[(m_count - 1) / 2] / 1e6;
+            double p99 = m_sorted[(int) ((m_count - 1) * 0.99)] / 1e6;
+            double max = m_sorted[m_count - 1] / 1e6;
+
+            m_p50Pub.set(p50);
+            m_p99Pub.set(p99);
+            m_maxPub.set(max);
+            SignalLogger.writeDouble(m_p50Key, p50, "ms");
+            SignalLogger.writeDouble(m_p99Key, p99, "ms");
+            SignalLogger.writeDouble(m_maxKey, max, "ms");
+        }
+    }
+
+    /**
+     * Registers a section. Call this once at construction time, never in a loop.
+     *
+     * @param name Name of the section, used as its NetworkTables and log key
+     * @return The section handle
+     */
+    public static Section section(String name) {
+        Section section = new Section(name);
+        kSections.add(section);
+        return section;
+    }
+
+    /** Publishes every section's statistics once per second. Call once per robot loop. */
+    public static void publish() {
+        if (++s_loopsSincePublish < kPublishPeriodLoops) {
+            return;
+        }
+        s_loopsSincePublish = 0;
+        for (int i = 0; i < kSections.size(); ++i) {
+            kSections.get(i).publish();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package frc.robot.util;
+
+import com.ctre.phoenix6.swerve.SwerveDrivetrain.SwerveDriveState;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Fixed-capacity history of robot poses and speeds, for asking where the robot was at a past
+ * timestamp.
+ * <p>
+ * Samples live in parallel primitive arrays used as a ring, so appending overwrites the oldest
+ * sample and nothing is allocated after construction. Lookups guess the index from the average
+ * sample period and then gallop and bisect from there, which lands in a step or two when the
+ * samples come at a steady rate like the odometry thread's. Timestamps are in the same timebase
+ * as {@link SwerveDriveState#Timestamp}.
+ * <p>
+ * The odometry thread appends while other threads sample, so every method synchronizes on the
+ * history; both sides only hold the lock for a few array accesses.
+ */
+public class PoseHistory {
+    /** Mutable holder for an interpolated sample. */
+    public static class Sample {
+        public double timestamp;
+        public double x;
+        public double y;
+        /** Heading in radians, wrapped to [-pi, pi] */
+        public double heading;
+        /** Robot-relative speeds */
+        public double vx;
+        public double vy;
+        public double omega;
+
+        /** @return A new Pose2d for this sample */
+        public Pose2d toPose2d() {
+            return new Pose2d(x, y, Rotation2d.fromRadians(heading));
+        }
+    }
+
+    private final int m_mask;
+    private final double[] m_timestamp;
+    private final double[] m_x;
+    private final double[] m_y;
+    private final double[] m_heading;
+    private final double[] m_vx;
+    private final double[] m_vy;
+    private final double[] m_omega;
+
+    /* Number of samples appended so far; the newest is at (m_count - 1) & m_mask */
+    private long m_count = 0;
+
+    /**
+     * Constructs an empty history.
+     *
+     * @param capacity Number of samples to keep, rounded up to a power of two
+     */
+    public PoseHistory(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        m_mask = size - 1;
+        m_timestamp = new double[size];
+        m_x = new double[size];
+        m_y = new double[size];
+        m_heading = new double[size];
+        m_vx = new double[size];
+        m_vy = new double[size];
+        m_omega = new double[size];
+    }
+
+    /**
+     * Appends the pose and speeds of a drive state.
+     *
+     * @param state Drive state to record
+     */
+    public void add(SwerveDriveState state) {
+        add(
+            state.Timestamp,
+            state.Pose.getX(),
+            state.Pose.getY(),
+            state.Pose.getRotation().getRadians(),
+            state.Speeds.vxMetersPerSecond,
+            state.Speeds.vyMetersPerSecond,
+            state.Speeds.omegaRadiansPerSecond
+        );
+    }
+
+    /**
+     * Appends a sample, overwriting the oldest one once the history is full. Samples that are
+     * not newer than the latest one are ignored.
+     *
+     * @param timestamp Timestamp in seconds
+     * @param x         X position in meters
+     * @param y         Y position in meters
+     * @param heading   Heading in radians
+     * @param vx        Robot-relative X speed in meters per second
+     * @param vy        Robot-relative Y speed in meters per second
+     * @param omega     Angular speed in radians per second
+     */
+    public synchronized void add(double timestamp, double x, double y, double heading, double vx, double vy, double omega) {
+        if (m_count > 0 && timestamp <= m_timestamp[(int) ((m_count - 1) & m_mask)]) {
+            return;
+        }
+        int slot = (int) (m_count & m_mask);
+        m_timestamp[slot] = timestamp;
+        m_x[slot] = x;
+        m_y[slot] = y;
+        m_heading[slot] = heading;
+        m_vx[slot] = vx;
+        m_vy[slot] = vy;
+        m_omega[slot] = omega;
+        ++m_count;
+    }
+
+    /** @return Number of samples currently held */
+    public synchronized int size() {
+        return (int) Math.min(m_count, m_mask + 1);
+    }
+
+    /** Removes every sample, for example after the pose is reset. */
+    public synchronized void clear() {
+        m_count = 0;
+    }
+
+    /**
+     * Interpolates the history at a timestamp. Timestamps before the oldest sample or after the
+     * newest are clamped to those samples, like WPILib's TimeInterpolatableBuffer.
+     *
+     * @param timestamp Timestamp in seconds
+     * @param out       Filled with the interpolated sample
+     * @return Whether there was any sample to interpolate
+     */
+    public synchronized boolean sample(double timestamp, Sample out) {
+        int size = (int) Math.min(m_count, m_mask + 1);
+        if (size == 0) {
+            return false;
+        }
+        long oldest = m_count - size;
+        if (timestamp <= time(oldest, 0)) {
+            copy(slot(oldest, 0), timestamp, out);
+            return true;
+        }
+        if (timestamp >= time(oldest, size - 1)) {
+            copy(slot(oldest, size - 1), timestamp, out);
+            return true;
+        }
+
+        int lo = find(oldest, size, timestamp);
+        int a = slot(oldest, lo);
+        int b = slot(oldest, lo + 1);
+        double t = (timestamp - m_timestamp[a]) / (m_timestamp[b] - m_timestamp[a]);
+        out.timestamp = timestamp;
+        out.x = m_x[a] + (m_x[b] - m_x[a]) * t;
+        out.y = m_y[a] + (m_y[b] - m_y[a]) * t;
+        out.heading = MathUtil.angleModulus(m_heading[a] + MathUtil.angleModulus(m_heading[b] - m_heading[a]) * t);
+        out.vx = m_vx[a] + (m_vx[b] - m_vx[a]) * t;
+        out.vy = m_vy[a] + (m_vy[b] - m_vy[a]) * t;
+        out.omega = m_omega[a] + (m_omega[b] - m_omega[a]) * t;
+        return true;
+    }
+
+    /**
+     * Finds the sample at or just before a timestamp strictly inside the history.
+     *
+     * @return Index i, counted from the oldest sample, with time(i) &lt;= timestamp &lt; time(i + 1)
+     */
+    private int find(long oldest, int size, double timestamp) {
+        double first = time(oldest, 0);
+        double last = time(oldest, size - 1);
+        int guess = (int) ((timestamp - first) / (last - first) * (size - 1));
+        guess = Math.max(0, Math.min(size - 2, guess));
+
+        /* Gallop away from the guess until the timestamp is bracketed, then bisect */
+        int lo;
+        int hi;
+        if (time(oldest, guess) <= timestamp) {
+            lo = guess;
+            hi = guess + 1;
+            int step = 1;
+            while (hi < size - 1 && time(oldest, hi) <= timestamp) {
+                lo = hi;
+                step <<= 1;
+                hi = Math.min(size - 1, lo + step);
+            }
+        } else {
+            hi = guess;
+            lo = guess - 1;
+            int step = 1;
+            while (lo > 0 && time(oldest, lo) > timestamp) {
+                hi = lo;
+                step <<= 1;
+                lo = Math.max(0, hi - step);
+            }
+        }
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (time(oldest, mid) <= timestamp) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int slot(long oldest, int index) {
+        return (int) ((oldest + index) & m_mask);
+    }
+
+    private double time(long oldest, int index) {
+        return m_timestamp[slot(oldest, index)];
+    }
+
+    private void copy(int slot, double timestamp, Sample out) {
+        out.timestamp = timestamp;
+        out.x = m_x[slot];
+        out.y = m_y[slot];
+        out.heading = MathUtil.angleModulus(m_heading[slot]);
+        out.vx = m_vx[slot];
+        out.vy = m_vy[slot];
+        out.omega = m_omega[slot];
+    }
+}
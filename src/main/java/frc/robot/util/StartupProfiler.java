@@ -0,0 +1,149 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DataLogManager;
+
+/**
+ * Times the phases of robot startup and runs independent phases concurrently.
+ * <p>
+ * Phases run either inline with {@link #time} or on a small bounded executor with
+ * {@link #submit}. {@link #finish()} waits for every submitted phase, shuts the executor
+ * down, and publishes each phase's duration under Startup in NetworkTables and to the
+ * data log. Only use it during construction, before the robot loop starts.
+ */
+public class StartupProfiler {
+    /* The roboRIO has two cores, and the main thread keeps working alongside the pool */
+    private static final int kThreads = 2;
+
+    private static final class Phase {
+        final String name;
+        final String thread;
+        final long startNanos;
+        final long endNanos;
+
+        Phase(String name, String thread, long startNanos, long endNanos) {
+            this.name = name;
+            this.thread = thread;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+        }
+    }
+
+    private final long m_startNanos = System.nanoTime();
+    private final List<Phase> m_phases = new ArrayList<>();
+    private final List<CompletableFuture<?>> m_pending = new ArrayList<>();
+    private final ExecutorService m_executor;
+
+    /** Constructs a profiler; startup time is measured from here. */
+    public StartupProfiler() {
+        AtomicInteger count = new AtomicInteger();
+        m_executor = Executors.newFixedThreadPool(kThreads, runnable -> {
+            Thread thread = new Thread(runnable, "Startup-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs a phase on the calling thread and records how long it took.
+     *
+     * @param phase Name of the phase
+     * @param work  Work of the phase
+     * @return Result of the work
+     */
+    public <T> T time(String phase, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(phase, start);
+        }
+    }
+
+    /**
+     * Runs a phase on the calling thread and records how long it took.
+     *
+     * @param phase Name of the phase
+     * @param work  Work of the phase
+     */
+    public void time(String phase, Runnable work) {
+        time(phase, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a phase on the startup executor. The phase must not depend on anything that is
+     * still being constructed on the main thread, and must not touch the CommandScheduler.
+     *
+     * @param phase Name of the phase
+     * @param work  Work of the phase
+     * @return Future of the work's result; {@link #finish()} also waits for it
+     */
+    public synchronized <T> CompletableFuture<T> submit(String phase, Supplier<T> work) {
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> time(phase, work), m_executor);
+        m_pending.add(future);
+        return future;
+    }
+
+    /**
+     * Runs a phase on the startup executor.
+     *
+     * @param phase Name of the phase
+     * @param work  Work of the phase
+     * @return Future completing with the phase; {@link #finish()} also waits for it
+     * @see #submit(String, Supplier)
+     */
+    public CompletableFuture<Void> submit(String phase, Runnable work) {
+        return submit(phase, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Waits for every submitted phase, then publishes the timings. If a phase failed,
+     * its exception is rethrown here, after the timings are published.
+     */
+    public void finish() {
+        CompletableFuture<?>[] pending;
+        synchronized (this) {
+            pending = m_pending.toArray(new CompletableFuture<?>[0]);
+        }
+        try {
+            CompletableFuture.allOf(pending).join();
+        } finally {
+            m_executor.shutdown();
+            publish(System.nanoTime());
+        }
+    }
+
+    private synchronized void record(String phase, long startNanos) {
+        m_phases.add(new Phase(phase, Thread.currentThread().getName(), startNanos, System.nanoTime()));
+    }
+
+    private synchronized void publish(long endNanos) {
+        NetworkTable table = NetworkTableInstance.getDefault().getTable("Startup");
+        StringBuilder summary = new StringBuilder("Startup phases:");
+        for (Phase phase : m_phases) {
+            double ms = (phase.endNanos - phase.startNanos) / 1e6;
+            table.getEntry(phase.name + "Ms").setDouble(ms);
+            summary.append(String.format("%n  %-20s %8.1f ms  (at %7.1f ms on %s)",
+                phase.name, ms, (phase.startNanos - m_startNanos) / 1e6, phase.thread));
+        }
+        double totalMs = (endNanos - m_startNanos) / 1e6;
+        table.getEntry("TotalMs").setDouble(totalMs);
+        summary.append(String.format("%n  %-20s %8.1f ms", "Total", totalMs));
+        DataLogManager.log(summary.toString());
+    }
+}
@@ -0,0 +1,130 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DataLogManager;
+
+/**
+ * Warms up the JIT on registered hot paths while the robot is disabled.
+ * <p>
+ * Each path is a body that runs its real code on synthetic inputs and must not touch
+ * hardware outputs. {@link #runSlice()} runs the paths round robin in batches for a small
+ * time budget per call, so it can be called from disabledPeriodic without overrunning the loop.
+ * A path is warm once it has run enough calls for the JIT to compile it and its per-call
+ * latency has stopped changing between batches; that is published under Warmup and logged.
+ * A path that throws is published as failed instead and never reported warm, nor is one given
+ * up on because its latency never settled.
+ */
+public class Warmup {
+    /* Time spent per runSlice() call, in nanoseconds */
+    private static final long kSliceBudgetNanos = 5_000_000;
+    private static final int kBatchSize = 100;
+    /* Calls before a path can be considered warm, above the JIT's compile thresholds */
+    private static final long kMinCalls = 20_000;
+    /* Calls after which a path is given up on even if its latency is still moving */
+    private static final long kMaxCalls = 500_000;
+    /* Consecutive batches within tolerance of each other that count as steady state */
+    private static final int kStableBatches = 5;
+    private static final double kStableTolerance = 0.1;
+
+    private static final class HotPath {
+        final String name;
+        final Runnable body;
+        final DoublePublisher nanosPerCallPub;
+        final BooleanPublisher warmPub;
+        final BooleanPublisher failedPub;
+        long calls = 0;
+        double lastNanosPerCall = Double.NaN;
+        int stableBatches = 0;
+        boolean done = false;
+
+        HotPath(String name, Runnable body, NetworkTable table) {
+            this.name = name;
+            this.body = body;
+            nanosPerCallPub = table.getDoubleTopic(name + "/NanosPerCall").publish();
+            warmPub = table.getBooleanTopic(name + "/Warm").publish();
+            failedPub = table.getBooleanTopic(name + "/Failed").publish();
+            warmPub.set(false);
+            failedPub.set(false);
+        }
+    }
+
+    private final NetworkTable m_table = NetworkTableInstance.getDefault().getTable("Warmup");
+    private final List<HotPath> m_paths = new ArrayList<>();
+    private int m_next = 0;
+    private int m_remaining = 0;
+
+    /**
+     * Registers a hot path to warm up.
+     *
+     * @param name Name of the path
+     * @param body One call of the path on synthetic inputs; must not touch hardware outputs
+     */
+    public void register(String name, Runnable body) {
+        m_paths.add(new HotPath(name, body, m_table));
+        ++m_remaining;
+    }
+
+    /** @return True once every registered path is warm, failed or was given up on */
+    public boolean isDone() {
+        return m_remaining == 0;
+    }
+
+    /** Runs batches of the paths that are not warm yet, for at most the slice budget. */
+    public void runSlice() {
+        if (isDone()) {
+            return;
+        }
+        long deadline = System.nanoTime() + kSliceBudgetNanos;
+        while (System.nanoTime() < deadline && !isDone()) {
+            HotPath path = m_paths.get(m_next);
+            m_next = (m_next + 1) % m_paths.size();
+            if (!path.done) {
+                try {
+                    runBatch(path);
+                } catch (RuntimeException e) {
+                    path.failedPub.set(true);
+                    finish(path, "Warmup: " + path.name + " failed: " + e);
+                }
+            }
+        }
+    }
+
+    private void runBatch(HotPath path) {
+        long start = System.nanoTime();
+        for (int i = 0; i < kBatchSize; ++i) {
+            path.body.run();
+        }
+        double nanosPerCall = (double) (System.nanoTime() - start) / kBatchSize;
+        path.calls += kBatchSize;
+        path.nanosPerCallPub.set(nanosPerCall);
+
+        if (Math.abs(nanosPerCall - path.lastNanosPerCall) <= kStableTolerance * path.lastNanosPerCall) {
+            ++path.stableBatches;
+        } else {
+            path.stableBatches = 0;
+        }
+        path.lastNanosPerCall = nanosPerCall;
+
+        if (path.calls >= kMinCalls && path.stableBatches >= kStableBatches) {
+            path.warmPub.set(true);
+            finish(path, String.format("Warmup: %s steady at %.0f ns/call after %d calls",
+                path.name, nanosPerCall, path.calls));
+        } else if (path.calls >= kMaxCalls) {
+            finish(path, String.format("Warmup: %s still varying (%.0f ns/call) after %d calls",
+                path.name, nanosPerCall, path.calls));
+        }
+    }
+
+    /* Stops running a path; the caller publishes whether it ended warm or failed */
+    private void finish(HotPath path, String message) {
+        path.done = true;
+        --m_remaining;
+        DataLogManager.log(message);
+    }
+}
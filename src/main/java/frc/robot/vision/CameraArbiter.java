@@ -0,0 +1,268 @@
+package frc.robot.vision;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+import frc.robot.LimelightHelpers.PoseEstimate;
+
+/**
+ * Scores and arbitrates the measurements every camera produced in one vision cycle.
+ * <p>
+ * Each measurement gets a quality score in (0, 1] from its tag count, average tag distance,
+ * tag span, worst fiducial ambiguity, latency and the robot's angular rate, and its standard
+ * deviations are inflated by the inverse of that score. At the end of the cycle the
+ * candidates are ordered by capture time (ties broken by camera index), measurements of the
+ * same instant from different cameras are merged by inverse-variance weighting, and the
+ * result is published in that fixed order. At most a fixed number of measurements are published
+ * per cycle, keeping the newest, so a burst of queued frames cannot overrun the consumer's
+ * queue. All buffers are sized once at construction.
+ */
+public class CameraArbiter {
+    /* Measurements scoring below this are dropped */
+    private static final double kMinScore = 0.05;
+    /* Measurements from different cameras closer together than this are the same instant, in seconds */
+    private static final double kMergeWindow = 0.005;
+    /* Average tag distance at which the distance term halves, in meters */
+    private static final double kReferenceDistance = 3.0;
+    /* Tag span at which a multi-tag estimate gets full span credit, in meters */
+    private static final double kReferenceSpan = 1.0;
+    /* Pipeline plus capture latency at which the latency term halves, in milliseconds */
+    private static final double kReferenceLatency = 100.0;
+    /* Angular rate at which the rate term halves, in radians per second */
+    private static final double kReferenceAngularRate = Math.PI;
+
+    private final VisionMeasurement[] m_candidates;
+    private final double[] m_scores;
+    private final int[] m_order;
+    /* End of each merge group in m_order, filled by flush() */
+    private final int[] m_groupEnds;
+    private final int m_maxPublishedPerCycle;
+    private int m_count = 0;
+    private long m_cappedCount = 0;
+    private double m_omegaRadPerSec = 0;
+
+    private final DoublePublisher[] m_scorePublishers;
+
+    /**
+     * Constructs an arbiter.
+     *
+     * @param cameraNames NetworkTables names of the cameras, in ingestor order
+     * @param maxPerCycle Maximum number of candidates accepted per cycle
+     * @param maxPublishedPerCycle Maximum number of measurements published per cycle
+     */
+    public CameraArbiter(String[] cameraNames, int maxPerCycle, int maxPublishedPerCycle) {
+        m_candidates = new VisionMeasurement[maxPerCycle];
+        for (int i = 0; i < maxPerCycle; ++i) {
+            m_candidates[i] = new VisionMeasurement();
+        }
+        m_scores = new double[maxPerCycle];
+        m_order = new int[maxPerCycle];
+        m_groupEnds = new int[maxPerCycle];
+        m_maxPublishedPerCycle = maxPublishedPerCycle;
+
+        NetworkTable table = NetworkTableInstance.getDefault().getTable("Vision/Arbiter");
+        m_scorePublishers = new DoublePublisher[cameraNames.length];
+        for (int i = 0; i < cameraNames.length; ++i) {
+            m_scorePublishers[i] = table.getDoubleTopic(cameraNames[i] + "/Score").publish();
+        }
+    }
+
+    /**
+     * Starts a new cycle, discarding any candidates that were not flushed.
+     *
+     * @param omegaRadPerSec Current robot angular rate, in radians per second
+     */
+    public void begin(double omegaRadPerSec) {
+        m_count = 0;
+        m_omegaRadPerSec = omegaRadPerSec;
+    }
+
+    /**
+     * Scores an estimate and, if it is usable, records it as a candidate for this cycle.
+     *
+     * @param cameraIndex Index of the camera that produced the estimate
+     * @param estimate    Decoded Limelight estimate
+     * @param fusion      Fusion stage providing the base standard deviations
+     * @return True if the estimate was kept as a candidate
+     */
+    public boolean offer(int cameraIndex, PoseEstimate estimate, VisionFusion fusion) {
+        if (m_count == m_candidates.length) {
+            return false;
+        }
+        VisionMeasurement candidate = m_candidates[m_count];
+        if (!fusion.computeStdDevs(estimate, candidate)) {
+            return false;
+        }
+
+        double score = score(estimate, m_omegaRadPerSec);
+        if (cameraIndex < m_scorePublishers.length) {
+            m_scorePublishers[cameraIndex].set(score);
+        }
+        if (score < kMinScore) {
+            return false;
+        }
+
+        candidate.cameraIndex = cameraIndex;
+        candidate.x = estimate.poseX;
+        candidate.y = estimate.poseY;
+        candidate.yawRadians = estimate.poseYawRadians;
+        candidate.timestampSeconds = estimate.timestampSeconds;
+        candidate.tagCount = estimate.tagCount;
+        candidate.avgTagDist = estimate.avgTagDist;
+        candidate.stdDevX /= score;
+        candidate.stdDevY /= score;
+        m_scores[m_count] = score;
+        ++m_count;
+        return true;
+    }
+
+    /**
+     * Computes the quality score of an estimate.
+     *
+     * @param estimate       Decoded Limelight estimate
+     * @param omegaRadPerSec Robot angular rate, in radians per second
+     * @return Score in (0, 1], higher is better
+     */
+    public static double score(PoseEstimate estimate, double omegaRadPerSec) {
+        double maxAmbiguity = 0;
+        for (int i = 0; i < estimate.rawFiducialCount; ++i) {
+            maxAmbiguity = Math.max(maxAmbiguity, estimate.rawFiducials[i].ambiguity);
+        }
+        double distanceRatio = estimate.avgTagDist / kReferenceDistance;
+
+        double tagTerm = 1.0 - Math.pow(0.5, Math.max(1, estimate.tagCount));
+        double distanceTerm = 1.0 / (1.0 + distanceRatio * distanceRatio);
+        double spanTerm = estimate.tagCount > 1
+            ? 0.5 + 0.5 * Math.min(1.0, estimate.tagSpan / kReferenceSpan)
+            : 1.0;
+        double ambiguityTerm = 1.0 - Math.min(1.0, maxAmbiguity);
+        double latencyTerm = 1.0 / (1.0 + estimate.latency / kReferenceLatency);
+        double rateTerm = 1.0 / (1.0 + Math.abs(omegaRadPerSec) / kReferenceAngularRate);
+
+        /* Normalize so a close, unambiguous two-tag estimate while stationary scores near 1 */
+        return Math.min(1.0, 1.5 * tagTerm * distanceTerm * spanTerm * ambiguityTerm * latencyTerm * rateTerm);
+    }
+
+    /**
+     * Orders, merges and publishes this cycle's candidates.
+     *
+     * @param queue Queue to publish the arbitrated measurements to
+     */
+    public void flush(VisionMeasurementQueue queue) {
+        /* Insertion sort by (timestamp, camera index); the candidate count is small */
+        for (int i = 0; i < m_count; ++i) {
+            int candidate = i;
+            int j = i - 1;
+            while (j >= 0 && comesBefore(candidate, m_order[j])) {
+                m_order[j + 1] = m_order[j];
+                --j;
+            }
+            m_order[j + 1] = candidate;
+        }
+
+        int groups = 0;
+        int i = 0;
+        while (i < m_count) {
+            VisionMeasurement first = m_candidates[m_order[i]];
+            int end = i + 1;
+            while (end < m_count
+                && m_candidates[m_order[end]].timestampSeconds - first.timestampSeconds <= kMergeWindow
+                && !containsCamera(i, end, m_candidates[m_order[end]].cameraIndex)) {
+                ++end;
+            }
+            m_groupEnds[groups++] = end;
+            i = end;
+        }
+
+        /* Over the cap, the oldest groups are the ones dropped */
+        int firstGroup = Math.max(0, groups - m_maxPublishedPerCycle);
+        m_cappedCount += firstGroup;
+        i = firstGroup == 0 ? 0 : m_groupEnds[firstGroup - 1];
+        for (int group = firstGroup; group < groups; ++group) {
+            int end = m_groupEnds[group];
+            VisionMeasurement slot = queue.claim();
+            if (slot == null) {
+                break;
+            }
+            if (end - i == 1) {
+                copy(m_candidates[m_order[i]], slot);
+            } else {
+                merge(i, end, slot);
+            }
+            queue.publish();
+            i = end;
+        }
+        m_count = 0;
+    }
+
+    /** @return Total number of measurements dropped by the per-cycle publish cap */
+    public long getCappedCount() {
+        return m_cappedCount;
+    }
+
+    private boolean comesBefore(int a, int b) {
+        double ta = m_candidates[a].timestampSeconds;
+        double tb = m_candidates[b].timestampSeconds;
+        if (ta != tb) {
+            return ta < tb;
+        }
+        return m_candidates[a].cameraIndex < m_candidates[b].cameraIndex;
+    }
+
+    /* Only merge across cameras; two frames from one camera are never the same instant */
+    private boolean containsCamera(int from, int to, int cameraIndex) {
+        for (int k = from; k < to; ++k) {
+            if (m_candidates[m_order[k]].cameraIndex == cameraIndex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Inverse-variance weighted merge of the ordered candidates in [from, to). */
+    private void merge(int from, int to, VisionMeasurement out) {
+        double wxSum = 0, wySum = 0, wtSum = 0;
+        double x = 0, y = 0, t = 0;
+        double bestScore = -1;
+        VisionMeasurement best = m_candidates[m_order[from]];
+        int tagCount = 0;
+        for (int k = from; k < to; ++k) {
+            int index = m_order[k];
+            VisionMeasurement m = m_candidates[index];
+            double wx = 1.0 / (m.stdDevX * m.stdDevX);
+            double wy = 1.0 / (m.stdDevY * m.stdDevY);
+            x += wx * m.x;
+            y += wy * m.y;
+            t += wx * m.timestampSeconds;
+            wxSum += wx;
+            wySum += wy;
+            wtSum += wx;
+            tagCount += m.tagCount;
+            if (m_scores[index] > bestScore) {
+                bestScore = m_scores[index];
+                best = m;
+            }
+        }
+        copy(best, out);
+        out.x = x / wxSum;
+        out.y = y / wySum;
+        out.timestampSeconds = t / wtSum;
+        out.tagCount = tagCount;
+        out.stdDevX = Math.sqrt(1.0 / wxSum);
+        out.stdDevY = Math.sqrt(1.0 / wySum);
+    }
+
+    private static void copy(VisionMeasurement from, VisionMeasurement to) {
+        to.cameraIndex = from.cameraIndex;
+        to.x = from.x;
+        to.y = from.y;
+        to.yawRadians = from.yawRadians;
+        to.timestampSeconds = from.timestampSeconds;
+        to.tagCount = from.tagCount;
+        to.avgTagDist = from.avgTagDist;
+        to.stdDevX = from.stdDevX;
+        to.stdDevY = from.stdDevY;
+        to.stdDevTheta = from.stdDevTheta;
+    }
+}
@@ -0,0 +1,134 @@
+package frc.robot.vision;
+
+import edu.wpi.first.math.MathUtil;
+
+import frc.robot.util.PoseHistory;
+
+/**
+ * Vision correction for the drivetrain's odometry without the Phoenix estimator's matrix math
+ * and odometry replay.
+ * <p>
+ * The estimate is the odometry pose plus a field-frame offset. Each measurement is compared
+ * against the corrected pose at its capture time, from the odometry in the drivetrain's
+ * {@link PoseHistory} plus the current offset, and moves the offset by the per-axis
+ * steady-state Kalman gain. With diagonal odometry and vision covariances the 3x3 gain
+ * matrix is diagonal, so the whole update is three scalar multiply-adds.
+ * <p>
+ * The offset is never written back into the odometry, so nothing resets the pose while the
+ * odometry thread is updating it. Whenever the odometry pose is reset, the matching part of
+ * the offset must be reset too.
+ * <p>
+ * Only the drivetrain's main loop updates this. The offset may be read from any thread;
+ * its components are read independently, so a reader can see one update's X with another's Y.
+ */
+public class FastPoseEstimator {
+    private final PoseHistory m_history;
+    private final PoseHistory.Sample m_sample = new PoseHistory.Sample();
+
+    /* Odometry variances, in meters^2 and radians^2 */
+    private double m_qX;
+    private double m_qY;
+    private double m_qTheta;
+
+    /* Correction added to the odometry pose */
+    private volatile double m_offsetX = 0;
+    private volatile double m_offsetY = 0;
+    private volatile double m_offsetTheta = 0;
+
+    /**
+     * Constructs the estimator.
+     *
+     * @param history            Odometry pose history the measurements are compared against
+     * @param odometryStdDevX     Odometry X standard deviation in meters
+     * @param odometryStdDevY     Odometry Y standard deviation in meters
+     * @param odometryStdDevTheta Odometry heading standard deviation in radians
+     */
+    public FastPoseEstimator(PoseHistory history, double odometryStdDevX, double odometryStdDevY, double odometryStdDevTheta) {
+        m_history = history;
+        setOdometryStdDevs(odometryStdDevX, odometryStdDevY, odometryStdDevTheta);
+    }
+
+    /**
+     * @param x     Odometry X standard deviation in meters
+     * @param y     Odometry Y standard deviation in meters
+     * @param theta Odometry heading standard deviation in radians
+     */
+    public void setOdometryStdDevs(double x, double y, double theta) {
+        m_qX = x * x;
+        m_qY = y * y;
+        m_qTheta = theta * theta;
+    }
+
+    /**
+     * Folds a vision measurement into the offset.
+     *
+     * @param x           Measured X in meters
+     * @param y           Measured Y in meters
+     * @param heading     Measured heading in radians
+     * @param timestamp   Capture timestamp, in the pose history's timebase
+     * @param stdDevX     Measurement X standard deviation in meters
+     * @param stdDevY     Measurement Y standard deviation in meters
+     * @param stdDevTheta Measurement heading standard deviation in radians
+     * @return False if there was no odometry history to compare against
+     */
+    public boolean addMeasurement(
+        double x, double y, double heading, double timestamp,
+        double stdDevX, double stdDevY, double stdDevTheta
+    ) {
+        if (!m_history.sample(timestamp, m_sample)) {
+            return false;
+        }
+        /* Innovation against the corrected pose at capture time */
+        double ex = x - (m_sample.x + m_offsetX);
+        double ey = y - (m_sample.y + m_offsetY);
+        double eTheta = MathUtil.angleModulus(heading - (m_sample.heading + m_offsetTheta));
+
+        m_offsetX += gain(m_qX, stdDevX * stdDevX) * ex;
+        m_offsetY += gain(m_qY, stdDevY * stdDevY) * ey;
+        m_offsetTheta = MathUtil.angleModulus(m_offsetTheta + gain(m_qTheta, stdDevTheta * stdDevTheta) * eTheta);
+        return true;
+    }
+
+    /** @return X offset added to the odometry pose, in meters */
+    public double getOffsetX() {
+        return m_offsetX;
+    }
+
+    /** @return Y offset added to the odometry pose, in meters */
+    public double getOffsetY() {
+        return m_offsetY;
+    }
+
+    /** @return Heading offset added to the odometry pose, in radians */
+    public double getOffsetTheta() {
+        return m_offsetTheta;
+    }
+
+    /** Clears the translation offset, after the odometry translation was reset. */
+    public void resetTranslation() {
+        m_offsetX = 0;
+        m_offsetY = 0;
+    }
+
+    /** Clears the heading offset, after the odometry heading was reset. */
+    public void resetHeading() {
+        m_offsetTheta = 0;
+    }
+
+    /** Clears the whole offset, after the odometry pose was reset. */
+    public void reset() {
+        resetTranslation();
+        resetHeading();
+    }
+
+    /*
+     * Steady-state gain for one axis, matching the closed form WPILib's pose estimators use:
+     * q / (q + sqrt(q * r)). Zero odometry variance means vision is never applied.
+     */
+    private static double gain(double q, double r) {
+        if (q == 0) {
+            return 0;
+        }
+        return q / (q + Math.sqrt(q * r));
+    }
+}
@@ -0,0 +1,279 @@
+package frc.robot.vision;
+
+import java.util.Arrays;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Outbound commands for one Limelight, staged during a loop and published together.
+ * <p>
+ * The LimelightHelpers setters build a new array, look the entry up by name and, for robot
+ * orientation, flush NetworkTables on every call. Here each command has a publisher created
+ * once and a preallocated staging array. Setters only copy values in, and
+ * {@link #flushAll()} publishes whatever changed on every camera and then flushes once. A value
+ * equal to the last one published is not sent again.
+ * <p>
+ * Setters and {@link #flushAll()} may be called from different threads.
+ */
+public class LimelightCommandBuffer {
+    private static final Object s_registryLock = new Object();
+    /* Copied on write so flushAll() can iterate without allocating or locking the registry */
+    private static volatile LimelightCommandBuffer[] s_buffers = new LimelightCommandBuffer[0];
+
+    private final String m_name;
+    private final ScalarCommand m_pipeline;
+    private final ScalarCommand m_priorityTagId;
+    private final ScalarCommand m_ledMode;
+    private final ArrayCommand m_robotOrientation;
+    private final ArrayCommand m_cropWindow;
+    private final ArrayCommand m_fiducialOffset;
+    private final ArrayCommand m_fiducialIdFilters;
+    private final ArrayCommand m_cameraPose;
+
+    /**
+     * Returns the buffer for a Limelight, creating it on first use.
+     *
+     * @param limelightName NetworkTables name of the Limelight
+     * @return Command buffer for that Limelight
+     */
+    public static LimelightCommandBuffer forLimelight(String limelightName) {
+        String name = limelightName == null || limelightName.isEmpty() ? "limelight" : limelightName;
+        synchronized (s_registryLock) {
+            for (LimelightCommandBuffer buffer : s_buffers) {
+                if (buffer.m_name.equals(name)) {
+                    return buffer;
+                }
+            }
+            LimelightCommandBuffer buffer = new LimelightCommandBuffer(name);
+            LimelightCommandBuffer[] buffers = Arrays.copyOf(s_buffers, s_buffers.length + 1);
+            buffers[buffers.length - 1] = buffer;
+            s_buffers = buffers;
+            return buffer;
+        }
+    }
+
+    /**
+     * Publishes the changed commands of every Limelight, then flushes NetworkTables once so
+     * they all go out together. Call this once per cycle.
+     */
+    public static void flushAll() {
+        boolean changed = false;
+        for (LimelightCommandBuffer buffer : s_buffers) {
+            changed |= buffer.publish();
+        }
+        if (changed) {
+            NetworkTableInstance.getDefault().flush();
+        }
+    }
+
+    private LimelightCommandBuffer(String name) {
+        m_name = name;
+        NetworkTable table = NetworkTableInstance.getDefault().getTable(name);
+        m_pipeline = new ScalarCommand(table.getDoubleTopic("pipeline").publish());
+        m_priorityTagId = new ScalarCommand(table.getDoubleTopic("priorityid").publish());
+        m_ledMode = new ScalarCommand(table.getDoubleTopic("ledMode").publish());
+        m_robotOrientation = new ArrayCommand(table.getDoubleArrayTopic("robot_orientation_set").publish(), 6);
+        m_cropWindow = new ArrayCommand(table.getDoubleArrayTopic("crop").publish(), 4);
+        m_fiducialOffset = new ArrayCommand(table.getDoubleArrayTopic("fiducial_offset_set").publish(), 3);
+        m_fiducialIdFilters = new ArrayCommand(table.getDoubleArrayTopic("fiducial_id_filters_set").publish(), 0);
+        m_cameraPose = new ArrayCommand(table.getDoubleArrayTopic("camerapose_robotspace_set").publish(), 6);
+    }
+
+    /** @return NetworkTables name of this Limelight */
+    public String getName() {
+        return m_name;
+    }
+
+    /** @param pipelineIndex Pipeline to switch to */
+    public synchronized void setPipelineIndex(int pipelineIndex) {
+        m_pipeline.stage(pipelineIndex);
+    }
+
+    /** @param id AprilTag ID to prefer when several are visible */
+    public synchronized void setPriorityTagID(int id) {
+        m_priorityTagId.stage(id);
+    }
+
+    /** @param mode LED mode: 0 pipeline control, 1 off, 2 blink, 3 on */
+    public synchronized void setLEDMode(int mode) {
+        m_ledMode.stage(mode);
+    }
+
+    /**
+     * Sets robot orientation values used by MegaTag2 localization.
+     *
+     * @param yaw       Robot yaw in degrees. 0 = robot facing red alliance wall in FRC
+     * @param yawRate   Angular velocity of robot yaw in degrees per second
+     * @param pitch     Robot pitch in degrees
+     * @param pitchRate Angular velocity of robot pitch in degrees per second
+     * @param roll      Robot roll in degrees
+     * @param rollRate  Angular velocity of robot roll in degrees per second
+     */
+    public synchronized void setRobotOrientation(
+        double yaw, double yawRate, double pitch, double pitchRate, double roll, double rollRate
+    ) {
+        double[] values = m_robotOrientation.m_staged;
+        values[0] = yaw;
+        values[1] = yawRate;
+        values[2] = pitch;
+        values[3] = pitchRate;
+        values[4] = roll;
+        values[5] = rollRate;
+        m_robotOrientation.m_pending = true;
+    }
+
+    /**
+     * Sets the crop window. The crop window in the UI must be completely open.
+     *
+     * @param cropXMin Minimum X value (-1 to 1)
+     * @param cropXMax Maximum X value (-1 to 1)
+     * @param cropYMin Minimum Y value (-1 to 1)
+     * @param cropYMax Maximum Y value (-1 to 1)
+     */
+    public synchronized void setCropWindow(double cropXMin, double cropXMax, double cropYMin, double cropYMax) {
+        double[] values = m_cropWindow.m_staged;
+        values[0] = cropXMin;
+        values[1] = cropXMax;
+        values[2] = cropYMin;
+        values[3] = cropYMax;
+        m_cropWindow.m_pending = true;
+    }
+
+    /**
+     * Sets the 3D point-of-interest offset for the current fiducial pipeline.
+     *
+     * @param x X offset in meters
+     * @param y Y offset in meters
+     * @param z Z offset in meters
+     */
+    public synchronized void setFiducial3DOffset(double x, double y, double z) {
+        double[] values = m_fiducialOffset.m_staged;
+        values[0] = x;
+        values[1] = y;
+        values[2] = z;
+        m_fiducialOffset.m_pending = true;
+    }
+
+    /**
+     * Overrides the AprilTag IDs used for localization.
+     *
+     * @param validIds Valid AprilTag IDs
+     */
+    public synchronized void setFiducialIDFiltersOverride(int[] validIds) {
+        double[] values = m_fiducialIdFilters.resize(validIds.length);
+        for (int i = 0; i < validIds.length; ++i) {
+            values[i] = validIds[i];
+        }
+        m_fiducialIdFilters.m_pending = true;
+    }
+
+    /**
+     * Sets the camera pose relative to the robot.
+     *
+     * @param forward Forward offset in meters
+     * @param side    Side offset in meters
+     * @param up      Up offset in meters
+     * @param roll    Roll angle in degrees
+     * @param pitch   Pitch angle in degrees
+     * @param yaw     Yaw angle in degrees
+     */
+    public synchronized void setCameraPose_RobotSpace(
+        double forward, double side, double up, double roll, double pitch, double yaw
+    ) {
+        double[] values = m_cameraPose.m_staged;
+        values[0] = forward;
+        values[1] = side;
+        values[2] = up;
+        values[3] = roll;
+        values[4] = pitch;
+        values[5] = yaw;
+        m_cameraPose.m_pending = true;
+    }
+
+    /** @return Whether anything was published */
+    private synchronized boolean publish() {
+        boolean changed = m_pipeline.publish();
+        changed |= m_priorityTagId.publish();
+        changed |= m_ledMode.publish();
+        changed |= m_robotOrientation.publish();
+        changed |= m_cropWindow.publish();
+        changed |= m_fiducialOffset.publish();
+        changed |= m_fiducialIdFilters.publish();
+        changed |= m_cameraPose.publish();
+        return changed;
+    }
+
+    private static class ScalarCommand {
+        private final DoublePublisher m_publisher;
+        private double m_staged;
+        private double m_published;
+        private boolean m_pending = false;
+        private boolean m_hasPublished = false;
+
+        ScalarCommand(DoublePublisher publisher) {
+            m_publisher = publisher;
+        }
+
+        void stage(double value) {
+            m_staged = value;
+            m_pending = true;
+        }
+
+        boolean publish() {
+            if (!m_pending) {
+                return false;
+            }
+            m_pending = false;
+            if (m_hasPublished && m_staged == m_published) {
+                return false;
+            }
+            m_publisher.set(m_staged);
+            m_published = m_staged;
+            m_hasPublished = true;
+            return true;
+        }
+    }
+
+    private static class ArrayCommand {
+        private final DoubleArrayPublisher m_publisher;
+        private double[] m_staged;
+        private double[] m_published;
+        private boolean m_pending = false;
+        private boolean m_hasPublished = false;
+
+        ArrayCommand(DoubleArrayPublisher publisher, int length) {
+            m_publisher = publisher;
+            m_staged = new double[length];
+            m_published = new double[length];
+        }
+
+        /* Only reallocates when the length changes */
+        double[] resize(int length) {
+            if (m_staged.length != length) {
+                m_staged = new double[length];
+            }
+            return m_staged;
+        }
+
+        boolean publish() {
+            if (!m_pending) {
+                return false;
+            }
+            m_pending = false;
+            if (m_hasPublished && Arrays.equals(m_staged, m_published)) {
+                return false;
+            }
+            /* The publisher copies the array, so the staging array can be reused right away */
+            m_publisher.set(m_staged);
+            if (m_published.length != m_staged.length) {
+                m_published = new double[m_staged.length];
+            }
+            System.arraycopy(m_staged, 0, m_published, 0, m_staged.length);
+            m_hasPublished = true;
+            return true;
+        }
+    }
+}
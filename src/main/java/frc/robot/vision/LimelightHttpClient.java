@@ -0,0 +1,201 @@
+package frc.robot.vision;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import frc.robot.LimelightHelpers.LimelightResults;
+
+/**
+ * Asynchronous client for the Limelight REST API on port 5807.
+ * <p>
+ * Every Limelight shares one {@link HttpClient} running on two daemon threads of its own, so
+ * requests never occupy the common ForkJoin pool or a robot thread, and connections are kept
+ * alive between requests. Each request has a timeout. A snapshot or results request made while
+ * an identical one is still in flight gets the same future instead of going out twice.
+ * <p>
+ * Failures never complete a future exceptionally: snapshots and uploads complete with false and
+ * results carry the error in {@link LimelightResults#error}.
+ */
+public class LimelightHttpClient {
+    private static final int kPort = 5807;
+    private static final Duration kConnectTimeout = Duration.ofMillis(500);
+    private static final Duration kDefaultRequestTimeout = Duration.ofSeconds(2);
+
+    private static final ExecutorService s_executor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "LimelightHttp");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final HttpClient s_httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(kConnectTimeout)
+        .executor(s_executor)
+        .build();
+    private static final ObjectMapper s_mapper =
+        new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final ConcurrentHashMap<String, LimelightHttpClient> s_clients = new ConcurrentHashMap<>();
+
+    private final URI m_baseUri;
+    private final Duration m_requestTimeout;
+    /* Requests in flight that identical requests can share, by path and parameter */
+    private final ConcurrentHashMap<String, CompletableFuture<?>> m_inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the shared client for a Limelight, creating it on first use.
+     *
+     * @param limelightName NetworkTables name of the Limelight, which is also its mDNS host name
+     * @return Client for that Limelight
+     */
+    public static LimelightHttpClient forLimelight(String limelightName) {
+        return s_clients.computeIfAbsent(limelightName, name -> new LimelightHttpClient(
+            URI.create("http://" + hostName(name) + ".local:" + kPort + "/"),
+            kDefaultRequestTimeout
+        ));
+    }
+
+    /**
+     * Constructs a client for a Limelight REST server at any address, such as a local stub.
+     *
+     * @param baseUri        Server root, ending in a slash
+     * @param requestTimeout Time allowed for each request from sending to the full response
+     */
+    public LimelightHttpClient(URI baseUri, Duration requestTimeout) {
+        m_baseUri = baseUri;
+        m_requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Asks the Limelight to save a snapshot of its current image.
+     *
+     * @param snapshotName Name to save the snapshot under, or null or empty for the Limelight's default
+     * @return Future completing with whether the Limelight accepted the request
+     */
+    public CompletableFuture<Boolean> takeSnapshot(String snapshotName) {
+        String name = snapshotName == null ? "" : snapshotName;
+        return coalesce("capturesnapshot:" + name, () -> {
+            HttpRequest.Builder request = request("capturesnapshot").GET();
+            if (!name.isEmpty()) {
+                request.header("snapname", name);
+            }
+            return sendForSuccess(request.build());
+        });
+    }
+
+    /**
+     * Fetches the Limelight's latest results over HTTP rather than NetworkTables.
+     *
+     * @return Future completing with the decoded results, or results with {@code error} set
+     */
+    public CompletableFuture<LimelightResults> fetchResults() {
+        return coalesce("results", () -> s_httpClient
+            .sendAsync(request("results").GET().build(), HttpResponse.BodyHandlers.ofString())
+            .handle((response, ex) -> {
+                if (ex != null) {
+                    return errorResults("request failed: " + ex.getMessage());
+                }
+                if (response.statusCode() != 200) {
+                    return errorResults("HTTP " + response.statusCode());
+                }
+                long start = System.nanoTime();
+                try {
+                    LimelightResults results = s_mapper.readValue(response.body(), LimelightResults.class);
+                    results.latency_jsonParse = (System.nanoTime() - start) * .000001;
+                    return results;
+                } catch (Exception parseEx) {
+                    return errorResults("lljson error: " + parseEx.getMessage());
+                }
+            }));
+    }
+
+    /**
+     * Uploads a pipeline to the Limelight. Uploads are never coalesced, since two uploads
+     * with different contents must both happen.
+     *
+     * @param pipelineJson Pipeline file contents
+     * @param index        Pipeline slot to write, or -1 for the currently active one
+     * @return Future completing with whether the Limelight accepted the pipeline
+     */
+    public CompletableFuture<Boolean> uploadPipeline(String pipelineJson, int index) {
+        String path = index >= 0 ? "upload-pipeline?index=" + index : "upload-pipeline";
+        return sendForSuccess(request(path)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(pipelineJson))
+            .build());
+    }
+
+    /** @return Number of distinct requests currently in flight */
+    public int getInFlightCount() {
+        return m_inFlight.size();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(m_baseUri.resolve(path)).timeout(m_requestTimeout);
+    }
+
+    private static CompletableFuture<Boolean> sendForSuccess(HttpRequest request) {
+        return s_httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .handle((response, ex) -> {
+                if (ex != null) {
+                    System.err.println("Limelight request " + request.uri() + " failed: " + ex.getMessage());
+                    return false;
+                }
+                if (response.statusCode() != 200) {
+                    System.err.println("Bad LL Request " + request.uri() + ": HTTP " + response.statusCode());
+                    return false;
+                }
+                return true;
+            });
+    }
+
+    /*
+     * Returns the in-flight future for key if there is one, otherwise starts the request and
+     * keeps its future there until it completes.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> coalesce(String key, Supplier<CompletableFuture<T>> send) {
+        CompletableFuture<T> pending = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) m_inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<T> sent;
+        try {
+            sent = send.get();
+        } catch (RuntimeException ex) {
+            m_inFlight.remove(key, pending);
+            pending.completeExceptionally(ex);
+            return pending;
+        }
+        sent.whenComplete((value, ex) -> {
+            m_inFlight.remove(key, pending);
+            if (ex != null) {
+                pending.completeExceptionally(ex);
+            } else {
+                pending.complete(value);
+            }
+        });
+        return pending;
+    }
+
+    private static LimelightResults errorResults(String error) {
+        LimelightResults results = new LimelightResults();
+        results.error = error;
+        return results;
+    }
+
+    /* Same default as LimelightHelpers: an empty name means the Limelight called "limelight" */
+    private static String hostName(String limelightName) {
+        return limelightName == null || limelightName.isEmpty() ? "limelight" : limelightName;
+    }
+}
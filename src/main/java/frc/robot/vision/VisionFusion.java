@@ -0,0 +1,109 @@
+package frc.robot.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+import frc.robot.LimelightHelpers.PoseEstimate;
+
+/**
+ * Decides how much the pose estimator should trust each vision measurement.
+ * <p>
+ * {@link #computeStdDevs} runs on the vision thread and turns a Limelight estimate into
+ * standard deviations that grow with tag distance and ambiguity and shrink with tag count.
+ * {@link #shouldHardReset} runs on the main loop and only asks for a pose reset when vision
+ * has consistently disagreed with the estimator by more than the configured distance.
+ */
+public class VisionFusion {
+    /* XY standard deviation for a single tag 1 m away, in meters */
+    private static final double kXYStdDevCoefficient = 0.08;
+    /* Never trust vision more than this, in meters */
+    private static final double kMinXYStdDev = 0.05;
+    /* MegaTag2 heading is our own gyro echoed back, so keep the estimator from fusing it */
+    private static final double kMegaTag2ThetaStdDev = 9999999;
+    /* Single-tag estimates above this ambiguity are rejected outright */
+    private static final double kMaxAmbiguity = 0.7;
+    /* Estimates whose tags average farther than this are rejected, in meters */
+    private static final double kMaxAvgTagDistance = 6.0;
+
+    /* Consecutive diverged measurements required before hard resetting */
+    private static final int kHardResetFrames = 5;
+    /* Tags required for a measurement to count toward a hard reset */
+    private static final int kHardResetMinTags = 2;
+
+    private volatile double m_hardResetDistance;
+    private int m_divergedFrames = 0;
+
+    /**
+     * Constructs the fusion stage.
+     *
+     * @param hardResetDistance Distance in meters between vision and the estimated pose
+     *                          beyond which the pose is reset instead of fused
+     */
+    public VisionFusion(double hardResetDistance) {
+        m_hardResetDistance = hardResetDistance;
+    }
+
+    /**
+     * @param hardResetDistance Distance in meters between vision and the estimated pose
+     *                          beyond which the pose is reset instead of fused
+     */
+    public void setHardResetDistance(double hardResetDistance) {
+        m_hardResetDistance = hardResetDistance;
+    }
+
+    /**
+     * Computes the measurement standard deviations for an estimate.
+     *
+     * @param estimate    Decoded Limelight estimate
+     * @param measurement Measurement whose standard deviation fields are written
+     * @return False if the estimate should be discarded entirely
+     */
+    public boolean computeStdDevs(PoseEstimate estimate, VisionMeasurement measurement) {
+        if (estimate.tagCount <= 0 || estimate.avgTagDist > kMaxAvgTagDistance) {
+            return false;
+        }
+
+        double maxAmbiguity = 0;
+        for (int i = 0; i < estimate.rawFiducialCount; ++i) {
+            maxAmbiguity = Math.max(maxAmbiguity, estimate.rawFiducials[i].ambiguity);
+        }
+        if (estimate.tagCount == 1 && maxAmbiguity > kMaxAmbiguity) {
+            return false;
+        }
+
+        /* Error grows with the square of distance and averages down with more tags */
+        double xyStdDev = kXYStdDevCoefficient
+            * Math.max(1.0, estimate.avgTagDist * estimate.avgTagDist)
+            / estimate.tagCount
+            * (1.0 + maxAmbiguity);
+        xyStdDev = Math.max(kMinXYStdDev, xyStdDev);
+
+        measurement.stdDevX = xyStdDev;
+        measurement.stdDevY = xyStdDev;
+        measurement.stdDevTheta = kMegaTag2ThetaStdDev;
+        return true;
+    }
+
+    /**
+     * Tracks how far vision is from the estimator and reports when the estimator should be
+     * hard reset to the vision pose. Only call this from the thread that applies measurements.
+     *
+     * @param measurement   Vision measurement about to be applied
+     * @param estimatedPose Current estimated robot pose
+     * @return True if the pose should be reset to the measurement instead of fused
+     */
+    public boolean shouldHardReset(VisionMeasurement measurement, Pose2d estimatedPose) {
+        double error = Math.hypot(measurement.x - estimatedPose.getX(), measurement.y - estimatedPose.getY());
+        if (error <= m_hardResetDistance) {
+            m_divergedFrames = 0;
+            return false;
+        }
+        if (measurement.tagCount < kHardResetMinTags) {
+            return false;
+        }
+        if (++m_divergedFrames < kHardResetFrames) {
+            return false;
+        }
+        m_divergedFrames = 0;
+        return true;
+    }
+}
@@ -0,0 +1,88 @@
+package frc.robot.vision;
+
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+
+import frc.robot.LimelightHelpers;
+import frc.robot.LimelightHelpers.PoseEstimate;
+
+/**
+ * Collects every MegaTag2 pose a set of Limelights has published since the last poll.
+ * <p>
+ * Each camera's botpose_orb_wpiblue topic is subscribed with a NetworkTables value
+ * queue, so frames that arrive between robot loops are buffered instead of being
+ * overwritten by the next one. {@link #poll} drains those queues and hands each sample
+ * to the caller with its own capture timestamp.
+ */
+public class VisionIngestor {
+    /** Samples kept per camera between polls; enough for a 20 ms loop at well over 100 fps */
+    public static final int kQueueDepth = 20;
+    /* Fiducials decoded per sample; more than a camera will see of the field at once */
+    public static final int kMaxFiducials = 16;
+
+    /**
+     * Receives each decoded measurement, oldest first for a given camera.
+     * The estimate is a reused buffer and is only valid until the consumer returns.
+     */
+    @FunctionalInterface
+    public interface MeasurementConsumer {
+        void accept(int cameraIndex, PoseEstimate estimate);
+    }
+
+    private final String[] m_cameraNames;
+    private final DoubleArraySubscriber[] m_megaTag2Subs;
+    private final PoseEstimate m_estimate = new PoseEstimate(kMaxFiducials);
+
+    /**
+     * Constructs an ingestor subscribing to the MegaTag2 output of each camera.
+     *
+     * @param cameraNames NetworkTables names of the Limelights to listen to
+     */
+    public VisionIngestor(String... cameraNames) {
+        m_cameraNames = cameraNames.clone();
+        m_megaTag2Subs = new DoubleArraySubscriber[m_cameraNames.length];
+        for (int i = 0; i < m_cameraNames.length; ++i) {
+            m_megaTag2Subs[i] = LimelightHelpers.getLimelightNTTable(m_cameraNames[i])
+                .getDoubleArrayTopic("botpose_orb_wpiblue")
+                .subscribe(
+                    new double[0],
+                    PubSubOption.sendAll(true),       // don't let the server coalesce fast frames
+                    PubSubOption.keepDuplicates(true), // repeated poses are still separate frames
+                    PubSubOption.pollStorage(kQueueDepth)
+                );
+        }
+    }
+
+    /** @return Number of cameras this ingestor listens to */
+    public int getCameraCount() {
+        return m_cameraNames.length;
+    }
+
+    /**
+     * @param cameraIndex Index of the camera, in constructor order
+     * @return NetworkTables name of the camera
+     */
+    public String getCameraName(int cameraIndex) {
+        return m_cameraNames[cameraIndex];
+    }
+
+    /**
+     * Drains every queued sample from every camera and passes it to the consumer.
+     *
+     * @param consumer Receiver for each decoded measurement
+     * @return Number of measurements delivered
+     */
+    public int poll(MeasurementConsumer consumer) {
+        int delivered = 0;
+        for (int i = 0; i < m_megaTag2Subs.length; ++i) {
+            for (TimestampedDoubleArray sample : m_megaTag2Subs[i].readQueue()) {
+                if (LimelightHelpers.decodeBotPoseEstimateInto(sample.value, sample.timestamp, true, m_estimate)) {
+                    consumer.accept(i, m_estimate);
+                    ++delivered;
+                }
+            }
+        }
+        return delivered;
+    }
+}
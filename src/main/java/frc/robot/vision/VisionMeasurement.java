@@ -0,0 +1,25 @@
+package frc.robot.vision;
+
+/**
+ * A single accepted vision pose measurement, stored as primitives so that queue slots
+ * can be preallocated and reused between the vision thread and the main loop.
+ */
+public class VisionMeasurement {
+    /** Index of the camera that produced the measurement */
+    public int cameraIndex;
+    /** Field-relative robot pose in the WPILib blue coordinate system, meters and radians */
+    public double x;
+    public double y;
+    public double yawRadians;
+    /** FPGA capture timestamp of the frame in seconds */
+    public double timestampSeconds;
+    /** Number of tags used for the estimate */
+    public int tagCount;
+    /** Average distance to the tags used, in meters */
+    public double avgTagDist;
+    /** Measurement standard deviations for the pose estimator, meters and radians */
+    public double stdDevX;
+    public double stdDevY;
+    public double stdDevTheta;
+
+}
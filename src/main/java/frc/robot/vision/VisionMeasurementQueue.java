@@ -0,0 +1,84 @@
+package frc.robot.vision;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer/single-consumer ring of preallocated {@link VisionMeasurement} slots.
+ * <p>
+ * The producer fills a slot from {@link #claim()} and makes it visible with {@link #publish()};
+ * the consumer reads a slot from {@link #peek()} and hands it back with {@link #release()}.
+ * Only one thread may produce and only one thread may consume. Nothing is allocated after construction.
+ */
+public class VisionMeasurementQueue {
+    private final VisionMeasurement[] m_slots;
+    private final int m_mask;
+
+    /* Next slot to read, written only by the consumer */
+    private final AtomicLong m_head = new AtomicLong();
+    /* Next slot to write, written only by the producer */
+    private final AtomicLong m_tail = new AtomicLong();
+    /* Measurements dropped because the consumer fell behind */
+    private final AtomicLong m_dropped = new AtomicLong();
+
+    /**
+     * Constructs a queue.
+     *
+     * @param capacity Number of slots, rounded up to a power of two
+     */
+    public VisionMeasurementQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        m_slots = new VisionMeasurement[size];
+        for (int i = 0; i < size; ++i) {
+            m_slots[i] = new VisionMeasurement();
+        }
+        m_mask = size - 1;
+    }
+
+    /**
+     * Producer: returns the next free slot to fill, or null (counting a drop) if the queue is full.
+     * The slot is not visible to the consumer until {@link #publish()} is called.
+     *
+     * @return Slot to fill, or null
+     */
+    public VisionMeasurement claim() {
+        long tail = m_tail.get();
+        if (tail - m_head.get() >= m_slots.length) {
+            m_dropped.incrementAndGet();
+            return null;
+        }
+        return m_slots[(int) (tail & m_mask)];
+    }
+
+    /** Producer: publishes the slot returned by the last successful {@link #claim()}. */
+    public void publish() {
+        m_tail.lazySet(m_tail.get() + 1);
+    }
+
+    /**
+     * Consumer: returns the oldest published measurement without removing it, or null if empty.
+     *
+     * @return Oldest measurement, or null
+     */
+    public VisionMeasurement peek() {
+        long head = m_head.get();
+        if (head == m_tail.get()) {
+            return null;
+        }
+        return m_slots[(int) (head & m_mask)];
+    }
+
+    /** Consumer: returns the slot from the last {@link #peek()} to the producer. */
+    public void release() {
+        m_head.lazySet(m_head.get() + 1);
+    }
+
+    /** @return Number of slots, after rounding up to a power of two */
+    public int getCapacity() {
+        return m_slots.length;
+    }
+
+    /** @return Total number of measurements dropped because the queue was full */
+    public long getDroppedCount() {
+        return m_dropped.get();
+    }
+}
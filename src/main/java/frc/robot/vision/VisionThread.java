@@ -0,0 +1,130 @@
+package frc.robot.vision;
+
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+import frc.robot.LimelightHelpers.PoseEstimate;
+import frc.robot.subsystems.CommandSwerveDrivetrain;
+
+/**
+ * Runs all Limelight ingestion, filtering and camera arbitration on its own thread,
+ * independent of the 20 ms robot loop. Accepted measurements are handed to the drivetrain
+ * through its {@link VisionMeasurementQueue}, which the drivetrain drains in its periodic,
+ * so adding cameras adds no work to the main loop.
+ */
+public class VisionThread {
+    public static final double kPeriod = 0.01; // 10 ms
+    /* Reject MegaTag2 estimates while spinning faster than this, in rotations per second */
+    public static final double kMaxAngularRateRps = 2.0;
+
+    private final CommandSwerveDrivetrain m_drivetrain;
+    private final VisionIngestor m_ingestor;
+    private final VisionMeasurementQueue m_queue;
+    private final VisionFusion m_fusion;
+    private final CameraArbiter m_arbiter;
+    private final Notifier m_notifier = new Notifier(this::run);
+    private final VisionIngestor.MeasurementConsumer m_filter = this::filter;
+    private final LimelightCommandBuffer[] m_commands;
+
+    /* Latest robot angular rate, sampled once per cycle */
+    private double m_omegaRps = 0;
+
+    /* Per-stage timing, in microseconds */
+    private final NetworkTable m_timingTable = NetworkTableInstance.getDefault().getTable("Vision/Timing");
+    private final DoublePublisher m_orientationTime = m_timingTable.getDoubleTopic("OrientationMicros").publish();
+    private final DoublePublisher m_ingestTime = m_timingTable.getDoubleTopic("IngestMicros").publish();
+    private final DoublePublisher m_arbitrateTime = m_timingTable.getDoubleTopic("ArbitrateMicros").publish();
+    private final DoublePublisher m_cycleTime = m_timingTable.getDoubleTopic("CycleMicros").publish();
+    private final IntegerPublisher m_accepted = m_timingTable.getIntegerTopic("Accepted").publish();
+    private final IntegerPublisher m_dropped = m_timingTable.getIntegerTopic("Dropped").publish();
+    private final IntegerPublisher m_capped = m_timingTable.getIntegerTopic("Capped").publish();
+
+    private long m_acceptedCount = 0;
+
+    /**
+     * Constructs the vision thread. It does not run until {@link #start()} is called.
+     *
+     * @param drivetrain  Drivetrain that owns the measurement queue
+     * @param cameraNames NetworkTables names of the Limelights to ingest
+     */
+    public VisionThread(CommandSwerveDrivetrain drivetrain, String... cameraNames) {
+        m_drivetrain = drivetrain;
+        m_ingestor = new VisionIngestor(cameraNames);
+        m_queue = drivetrain.getVisionMeasurementQueue();
+        m_fusion = drivetrain.getVisionFusion();
+        m_arbiter = new CameraArbiter(
+            cameraNames, cameraNames.length * VisionIngestor.kQueueDepth, maxPublishedPerCycle(m_queue)
+        );
+        m_commands = new LimelightCommandBuffer[cameraNames.length];
+        for (int i = 0; i < cameraNames.length; ++i) {
+            m_commands[i] = LimelightCommandBuffer.forLimelight(cameraNames[i]);
+        }
+        m_notifier.setName("Vision");
+    }
+
+    /**
+     * Computes how many measurements one vision cycle may publish so that the cycles run
+     * between two drains of the queue can never fill it.
+     *
+     * @param queue Queue the drivetrain drains once per robot loop
+     * @return Maximum number of measurements to publish per cycle
+     */
+    public static int maxPublishedPerCycle(VisionMeasurementQueue queue) {
+        int cyclesPerDrain = (int) Math.ceil(TimedRobot.kDefaultPeriod / kPeriod);
+        return Math.max(1, queue.getCapacity() / cyclesPerDrain);
+    }
+
+    /** Starts processing vision periodically in the background. */
+    public void start() {
+        m_notifier.startPeriodic(kPeriod);
+    }
+
+    /** Stops processing vision. */
+    public void stop() {
+        m_notifier.stop();
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+
+        var driveState = m_drivetrain.getState();
+        double headingDeg = m_drivetrain.getPose().getRotation().getDegrees();
+        m_omegaRps = Units.radiansToRotations(driveState.Speeds.omegaRadiansPerSecond);
+
+        for (int i = 0; i < m_commands.length; ++i) {
+            m_commands[i].setRobotOrientation(headingDeg, 0, 0, 0, 0, 0);
+        }
+        /* Also sends anything the main loop staged for these cameras since the last cycle */
+        LimelightCommandBuffer.flushAll();
+        long oriented = System.nanoTime();
+
+        m_arbiter.begin(driveState.Speeds.omegaRadiansPerSecond);
+        m_ingestor.poll(m_filter);
+        long ingested = System.nanoTime();
+
+        m_arbiter.flush(m_queue);
+        long arbitrated = System.nanoTime();
+
+        m_orientationTime.set((oriented - start) / 1000.0);
+        m_ingestTime.set((ingested - oriented) / 1000.0);
+        m_arbitrateTime.set((arbitrated - ingested) / 1000.0);
+        m_cycleTime.set((arbitrated - start) / 1000.0);
+        m_accepted.set(m_acceptedCount);
+        m_dropped.set(m_queue.getDroppedCount());
+        m_capped.set(m_arbiter.getCappedCount());
+    }
+
+    private void filter(int cameraIndex, PoseEstimate estimate) {
+        if (Math.abs(m_omegaRps) >= kMaxAngularRateRps) {
+            return;
+        }
+        if (m_arbiter.offer(cameraIndex, estimate, m_fusion)) {
+            ++m_acceptedCount;
+        }
+    }
+}
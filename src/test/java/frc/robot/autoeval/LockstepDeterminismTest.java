@@ -0,0 +1,55 @@
+package frc.robot.autoeval;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs the same auto twice in lockstep simulation, each in its own robot JVM the way
+ * {@link AutoBatchRunner} does, and checks that both runs end in the same place.
+ */
+class LockstepDeterminismTest {
+    private static final String kAuto = "Tests";
+    /* Result rows round the pose to 0.1 mm and 0.001 degrees */
+    private static final double kPoseTolerance = 1e-4;
+    private static final double kHeadingToleranceDegrees = 1e-3;
+
+    @TempDir
+    Path m_dir;
+
+    @Test
+    void sameAutoEndsAtSamePose() throws Exception {
+        String[] first = run("first");
+        String[] second = run("second");
+
+        assertEquals("OK", first[column("status")], Arrays.toString(first));
+        assertEquals("OK", second[column("status")], Arrays.toString(second));
+        /* Simulated time is stepped, so the auto takes exactly as long every run */
+        assertEquals(first[column("time_s")], second[column("time_s")]);
+        assertEquals(value(first, "final_x_m"), value(second, "final_x_m"), kPoseTolerance);
+        assertEquals(value(first, "final_y_m"), value(second, "final_y_m"), kPoseTolerance);
+        assertEquals(value(first, "final_heading_deg"), value(second, "final_heading_deg"), kHeadingToleranceDegrees);
+    }
+
+    private String[] run(String name) throws Exception {
+        Path dir = Files.createDirectories(m_dir.resolve(name));
+        return AutoBatchRunner.runChild(kAuto, dir).split(",", -1);
+    }
+
+    private static int column(String name) {
+        int index = List.of(AutoEvaluator.kResultHeader.split(",")).indexOf(name);
+        assertTrue(index >= 0, "no column " + name);
+        return index;
+    }
+
+    private static double value(String[] row, String name) {
+        return Double.parseDouble(row[column(name)]);
+    }
+}
@@ -0,0 +1,99 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Runs {@link LimeLight#periodic()} against locally published NetworkTables data and measures
+ * what the loop allocates on the calling thread.
+ */
+class LimeLightTest {
+    private static final String kTableName = "limelight-test";
+    private static final int kWarmupLoops = 20_000;
+    private static final int kMeasuredLoops = 5_000;
+
+    private static final com.sun.management.ThreadMXBean kThreadBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private LimeLight m_limelight;
+    private DoublePublisher m_tid;
+    private DoubleArrayPublisher m_targetPose;
+    private DoubleArrayPublisher m_botPose;
+
+    @BeforeAll
+    static void initializeHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @BeforeEach
+    void setup() {
+        NetworkTable table = NetworkTableInstance.getDefault().getTable(kTableName);
+        m_tid = table.getDoubleTopic("tid").publish();
+        m_targetPose = table.getDoubleArrayTopic("targetpose_cameraspace").publish();
+        m_botPose = table.getDoubleArrayTopic("botpose").publish();
+        m_limelight = new LimeLight(kTableName);
+    }
+
+    @AfterEach
+    void teardown() {
+        CommandScheduler.getInstance().unregisterSubsystem(m_limelight);
+        m_tid.close();
+        m_targetPose.close();
+        m_botPose.close();
+    }
+
+    @Test
+    void copiesPublishedPoses() {
+        m_tid.set(7);
+        m_targetPose.set(new double[] {0.1, 0.2, 1.5, 0, 10, 0});
+        m_botPose.set(new double[] {3.0, 4.0, 0, 0, 0, 90});
+        m_limelight.periodic();
+
+        assertEquals(7, m_limelight.tid);
+        assertEquals(7, m_limelight.last_seen_tag_id);
+        assertArrayEquals(new double[] {0.1, 0.2, 1.5, 0, 10, 0}, m_limelight.DDDx3_data3D);
+        assertArrayEquals(new double[] {3.0, 4.0, 0, 0, 0, 90}, m_limelight.Pos_data);
+
+        /* A shorter array zeroes the tail instead of leaving the previous values */
+        m_botPose.set(new double[] {1.0, 2.0});
+        m_limelight.periodic();
+        assertArrayEquals(new double[] {1.0, 2.0, 0, 0, 0, 0}, m_limelight.Pos_data);
+    }
+
+    @Test
+    void steadyStateLoopDoesNotAllocate() {
+        m_tid.set(7);
+        m_targetPose.set(new double[] {0.1, 0.2, 1.5, 0, 10, 0});
+        m_botPose.set(new double[] {3.0, 4.0, 0, 0, 0, 90});
+
+        /* Let the JIT compile periodic() so escape analysis matches what the robot runs */
+        for (int i = 0; i < kWarmupLoops; ++i) {
+            m_limelight.periodic();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        kThreadBean.getThreadAllocatedBytes(threadId);
+        long before = kThreadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < kMeasuredLoops; ++i) {
+            m_limelight.periodic();
+        }
+        long allocated = kThreadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(0, allocated, "bytes allocated over " + kMeasuredLoops + " loops");
+    }
+}
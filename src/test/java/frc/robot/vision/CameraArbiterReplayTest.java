@@ -0,0 +1,225 @@
+package frc.robot.vision;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.util.datalog.DataLogWriter;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+
+import frc.robot.LimelightHelpers;
+import frc.robot.LimelightHelpers.PoseEstimate;
+import frc.robot.replay.ReplayLog;
+import frc.robot.subsystems.CommandSwerveDrivetrain;
+
+/**
+ * Replays recorded Limelight NetworkTables data through {@link CameraArbiter}.
+ * <p>
+ * Frames are written to a data log under the entry names DataLogManager gives NetworkTables
+ * topics, then read back and grouped into vision thread cycles by log timestamp the same way
+ * ReplayEngine does, so a log pulled off the robot can be dropped into the same harness.
+ */
+class CameraArbiterReplayTest {
+    private static final String[] kCameras = {"limelight-left", "limelight-right"};
+    private static final long kCyclePeriod = (long) (VisionThread.kPeriod * 1e6);
+
+    @TempDir
+    Path m_dir;
+
+    @Test
+    void mergesSameInstantFramesAcrossCameras() throws IOException {
+        Path log = record("merge.wpilog",
+            frame(0, 1_000_000, 20, 4.00, 2.00),
+            frame(1, 1_000_000, 20, 4.10, 2.10)
+        );
+
+        List<VisionMeasurement> published = replay(log, new VisionMeasurementQueue(CommandSwerveDrivetrain.kVisionQueueCapacity));
+
+        assertEquals(1, published.size());
+        VisionMeasurement merged = published.get(0);
+        assertEquals(4, merged.tagCount);
+        assertTrue(merged.x > 4.00 && merged.x < 4.10);
+        assertTrue(merged.y > 2.00 && merged.y < 2.10);
+        assertEquals(1.0 - 0.020, merged.timestampSeconds, 1e-9);
+    }
+
+    @Test
+    void publishesInCaptureOrder() throws IOException {
+        /* Arrival order differs from capture order because the latencies differ */
+        Path log = record("order.wpilog",
+            frame(0, 2_000_000, 10, 1, 1),
+            frame(1, 2_001_000, 40, 2, 2),
+            frame(0, 2_004_000, 5, 3, 3),
+            frame(1, 2_006_000, 30, 4, 4)
+        );
+
+        List<VisionMeasurement> published = replay(log, new VisionMeasurementQueue(CommandSwerveDrivetrain.kVisionQueueCapacity));
+
+        assertTrue(published.size() >= 2);
+        for (int i = 1; i < published.size(); ++i) {
+            assertTrue(published.get(i - 1).timestampSeconds <= published.get(i).timestampSeconds);
+        }
+    }
+
+    @Test
+    void replayIsDeterministic() throws IOException {
+        List<double[]> frames = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            long arrival = 3_000_000 + i * 7_000L;
+            frames.add(frame(i % 2, arrival, 15 + (i * 13) % 40, 5 + 0.01 * i, 3 - 0.01 * i));
+        }
+        Path log = record("determinism.wpilog", frames.toArray(new double[0][]));
+
+        List<VisionMeasurement> first = replay(log, new VisionMeasurementQueue(CommandSwerveDrivetrain.kVisionQueueCapacity));
+        List<VisionMeasurement> second = replay(log, new VisionMeasurementQueue(CommandSwerveDrivetrain.kVisionQueueCapacity));
+
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); ++i) {
+            assertArrayEquals(flatten(first.get(i)), flatten(second.get(i)));
+        }
+    }
+
+    @Test
+    void capsBurstToNewestMeasurements() throws IOException {
+        /* A full NT queue of frames from one camera, all delivered in a single cycle */
+        double[][] frames = new double[VisionIngestor.kQueueDepth][];
+        for (int i = 0; i < frames.length; ++i) {
+            frames[i] = frame(0, 4_000_000, 2 * (frames.length - i), i, i);
+        }
+        Path log = record("burst.wpilog", frames);
+
+        VisionMeasurementQueue queue = new VisionMeasurementQueue(CommandSwerveDrivetrain.kVisionQueueCapacity);
+        int cap = VisionThread.maxPublishedPerCycle(queue);
+        List<VisionMeasurement> published = replay(log, queue);
+
+        assertEquals(Math.min(cap, frames.length), published.size());
+        assertEquals(0, queue.getDroppedCount());
+        /* The newest capture survives the cap */
+        assertEquals(4.0 - 0.002, published.get(published.size() - 1).timestampSeconds, 1e-9);
+    }
+
+    /**
+     * Builds one recorded frame.
+     *
+     * @return {camera, arrival timestamp in microseconds, MegaTag2 array...}
+     */
+    private static double[] frame(int camera, long arrivalMicros, double latencyMs, double x, double y) {
+        double[] botpose = {
+            x, y, 0, 0, 0, 30,   // pose
+            latencyMs, 2, 0.8, 2.0, 0.5,
+            7, 0, 0, 0.5, 2.0, 2.0, 0.1,
+            8, 0, 0, 0.5, 2.0, 2.0, 0.1
+        };
+        double[] frame = new double[2 + botpose.length];
+        frame[0] = camera;
+        frame[1] = arrivalMicros;
+        System.arraycopy(botpose, 0, frame, 2, botpose.length);
+        return frame;
+    }
+
+    /* Writes the frames to a data log the way DataLogManager records NetworkTables */
+    private Path record(String name, double[]... frames) throws IOException {
+        Path path = m_dir.resolve(name);
+        DataLogWriter log = new DataLogWriter(path.toString());
+        DoubleArrayLogEntry[] entries = new DoubleArrayLogEntry[kCameras.length];
+        for (int i = 0; i < kCameras.length; ++i) {
+            entries[i] = new DoubleArrayLogEntry(log, ReplayLog.megaTag2Entry(kCameras[i]));
+        }
+        for (double[] frame : frames) {
+            double[] botpose = new double[frame.length - 2];
+            System.arraycopy(frame, 2, botpose, 0, botpose.length);
+            entries[(int) frame[0]].append(botpose, (long) frame[1]);
+        }
+        log.close();
+        return path;
+    }
+
+    /* Reads the log back and runs it through a fresh arbiter, draining the queue after every cycle */
+    private static List<VisionMeasurement> replay(Path path, VisionMeasurementQueue queue) throws IOException {
+        DataLogReader reader = new DataLogReader(path.toString());
+        assertTrue(reader.isValid());
+
+        Map<Integer, Integer> cameraByEntry = new HashMap<>();
+        List<long[]> order = new ArrayList<>();
+        List<double[]> values = new ArrayList<>();
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                DataLogRecord.StartRecordData start = record.getStartData();
+                for (int i = 0; i < kCameras.length; ++i) {
+                    if (start.name.equals(ReplayLog.megaTag2Entry(kCameras[i]))) {
+                        cameraByEntry.put(start.entry, i);
+                    }
+                }
+            } else if (!record.isControl() && cameraByEntry.containsKey(record.getEntry())) {
+                order.add(new long[] {record.getTimestamp(), cameraByEntry.get(record.getEntry()), values.size()});
+                values.add(record.getDoubleArray());
+            }
+        }
+        order.sort(Comparator.comparingLong(event -> event[0]));
+
+        CameraArbiter arbiter = new CameraArbiter(
+            kCameras, kCameras.length * VisionIngestor.kQueueDepth, VisionThread.maxPublishedPerCycle(queue)
+        );
+        VisionFusion fusion = new VisionFusion(CommandSwerveDrivetrain.kVisionHardResetDistance);
+        PoseEstimate estimate = new PoseEstimate(VisionIngestor.kMaxFiducials);
+        List<VisionMeasurement> published = new ArrayList<>();
+
+        long cycleStart = Long.MIN_VALUE;
+        for (long[] event : order) {
+            if (cycleStart != Long.MIN_VALUE && event[0] >= cycleStart + kCyclePeriod) {
+                arbiter.flush(queue);
+                drain(queue, published);
+                cycleStart = Long.MIN_VALUE;
+            }
+            if (cycleStart == Long.MIN_VALUE) {
+                cycleStart = event[0];
+                arbiter.begin(0);
+            }
+            if (LimelightHelpers.decodeBotPoseEstimateInto(values.get((int) event[2]), event[0], true, estimate)) {
+                arbiter.offer((int) event[1], estimate, fusion);
+            }
+        }
+        arbiter.flush(queue);
+        drain(queue, published);
+        return published;
+    }
+
+    private static void drain(VisionMeasurementQueue queue, List<VisionMeasurement> out) {
+        VisionMeasurement measurement;
+        while ((measurement = queue.peek()) != null) {
+            VisionMeasurement copy = new VisionMeasurement();
+            copy.cameraIndex = measurement.cameraIndex;
+            copy.x = measurement.x;
+            copy.y = measurement.y;
+            copy.yawRadians = measurement.yawRadians;
+            copy.timestampSeconds = measurement.timestampSeconds;
+            copy.tagCount = measurement.tagCount;
+            copy.avgTagDist = measurement.avgTagDist;
+            copy.stdDevX = measurement.stdDevX;
+            copy.stdDevY = measurement.stdDevY;
+            copy.stdDevTheta = measurement.stdDevTheta;
+            out.add(copy);
+            queue.release();
+        }
+    }
+
+    private static double[] flatten(VisionMeasurement m) {
+        return new double[] {
+            m.cameraIndex, m.x, m.y, m.yawRadians, m.timestampSeconds,
+            m.tagCount, m.avgTagDist, m.stdDevX, m.stdDevY, m.stdDevTheta
+        };
+    }
+}
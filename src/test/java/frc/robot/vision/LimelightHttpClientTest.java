@@ -0,0 +1,197 @@
+package frc.robot.vision;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import frc.robot.LimelightHelpers.LimelightResults;
+
+/**
+ * Runs {@link LimelightHttpClient} against a local stub of the Limelight REST server.
+ */
+class LimelightHttpClientTest {
+    private static final Duration kRequestTimeout = Duration.ofMillis(300);
+    private static final long kWaitSeconds = 5;
+
+    private HttpServer m_server;
+    private ExecutorService m_serverExecutor;
+    private LimelightHttpClient m_client;
+
+    /* Released in teardown so no handler outlives the test */
+    private final CountDownLatch m_release = new CountDownLatch(1);
+    private final AtomicInteger m_requests = new AtomicInteger();
+
+    @BeforeEach
+    void setup() throws IOException {
+        m_server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        /* Handlers block, so each request needs its own thread */
+        m_serverExecutor = Executors.newCachedThreadPool();
+        m_server.setExecutor(m_serverExecutor);
+        m_server.start();
+        m_client = client(kRequestTimeout);
+    }
+
+    @AfterEach
+    void teardown() {
+        m_release.countDown();
+        m_server.stop(0);
+        m_serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void fetchesResults() throws Exception {
+        respond("/results", 200, "{\"pID\": 2.0}");
+
+        LimelightResults results = m_client.fetchResults().get(kWaitSeconds, TimeUnit.SECONDS);
+
+        assertNull(results.error);
+        assertEquals(2.0, results.pipelineID);
+    }
+
+    @Test
+    void reportsNon200() throws Exception {
+        respond("/results", 500, "");
+        respond("/upload-pipeline", 404, "");
+
+        LimelightResults results = m_client.fetchResults().get(kWaitSeconds, TimeUnit.SECONDS);
+        boolean uploaded = m_client.uploadPipeline("{}", 1).get(kWaitSeconds, TimeUnit.SECONDS);
+
+        assertEquals("HTTP 500", results.error);
+        assertFalse(uploaded);
+    }
+
+    @Test
+    void reportsParseErrors() throws Exception {
+        respond("/results", 200, "not json");
+
+        LimelightResults results = m_client.fetchResults().get(kWaitSeconds, TimeUnit.SECONDS);
+
+        assertTrue(results.error.startsWith("lljson error: "), results.error);
+    }
+
+    @Test
+    void timesOut() throws Exception {
+        m_server.createContext("/", exchange -> {
+            m_requests.incrementAndGet();
+            await(m_release);
+            send(exchange, 200, "{}");
+        });
+
+        long start = System.nanoTime();
+        LimelightResults results = m_client.fetchResults().get(kWaitSeconds, TimeUnit.SECONDS);
+        boolean snapshot = m_client.takeSnapshot("timeout").get(kWaitSeconds, TimeUnit.SECONDS);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        assertTrue(results.error.startsWith("request failed: "), results.error);
+        assertFalse(snapshot);
+        /* Each request gave up after its own timeout rather than waiting for the server */
+        assertTrue(elapsed < kWaitSeconds, "took " + elapsed + " s");
+        assertEquals(0, m_client.getInFlightCount());
+    }
+
+    @Test
+    void coalescesIdenticalRequests() throws Exception {
+        CountDownLatch arrived = new CountDownLatch(1);
+        m_server.createContext("/results", exchange -> {
+            m_requests.incrementAndGet();
+            arrived.countDown();
+            await(m_release);
+            send(exchange, 200, "{}");
+        });
+        /* Long enough that the blocked request is still in flight for the second call */
+        LimelightHttpClient client = client(Duration.ofSeconds(kWaitSeconds));
+
+        CompletableFuture<LimelightResults> first = client.fetchResults();
+        assertTrue(arrived.await(kWaitSeconds, TimeUnit.SECONDS));
+        CompletableFuture<LimelightResults> second = client.fetchResults();
+
+        assertSame(first, second);
+        assertEquals(1, client.getInFlightCount());
+        m_release.countDown();
+
+        assertNull(first.get(kWaitSeconds, TimeUnit.SECONDS).error);
+        assertEquals(1, m_requests.get());
+        assertEquals(0, client.getInFlightCount());
+    }
+
+    @Test
+    void coalescesSnapshotsByName() throws Exception {
+        CountDownLatch arrived = new CountDownLatch(2);
+        List<String> names = new CopyOnWriteArrayList<>();
+        m_server.createContext("/capturesnapshot", exchange -> {
+            names.add(exchange.getRequestHeaders().getFirst("snapname"));
+            arrived.countDown();
+            await(m_release);
+            send(exchange, 200, "");
+        });
+        LimelightHttpClient client = client(Duration.ofSeconds(kWaitSeconds));
+
+        CompletableFuture<Boolean> first = client.takeSnapshot("a");
+        CompletableFuture<Boolean> other = client.takeSnapshot("b");
+        assertTrue(arrived.await(kWaitSeconds, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> repeat = client.takeSnapshot("a");
+
+        assertSame(first, repeat);
+        assertNotSame(first, other);
+        assertEquals(2, client.getInFlightCount());
+        m_release.countDown();
+
+        assertTrue(first.get(kWaitSeconds, TimeUnit.SECONDS));
+        assertTrue(other.get(kWaitSeconds, TimeUnit.SECONDS));
+        assertEquals(List.of("a", "b"), names.stream().sorted().toList());
+    }
+
+    private LimelightHttpClient client(Duration requestTimeout) {
+        return new LimelightHttpClient(
+            URI.create("http://127.0.0.1:" + m_server.getAddress().getPort() + "/"), requestTimeout
+        );
+    }
+
+    private void respond(String path, int status, String body) {
+        m_server.createContext(path, exchange -> {
+            m_requests.incrementAndGet();
+            send(exchange, status, body);
+        });
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(kWaitSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}